@@ -1,9 +1,15 @@
 package fr.cylc.owlLib;
 
+import fr.cylc.owlLib.commands.OwlInfoCommand;
 import fr.cylc.owlLib.core.OwlComponentRegistry;
 import fr.cylc.owlLib.core.OwlEventBus;
 import fr.cylc.owlLib.core.OwlServiceLocator;
+import fr.cylc.owlLib.core.ShutdownCoordinator;
+import fr.cylc.owlLib.metrics.OwlMetrics;
+import fr.cylc.owlLib.profiler.OwlProfiler;
 import fr.cylc.owlLib.utils.ConfigManager;
+import fr.cylc.owlLib.utils.LoggerFactory;
+import org.bukkit.command.PluginCommand;
 import org.bukkit.plugin.java.JavaPlugin;
 
 /**
@@ -22,12 +28,20 @@ public final class OwlLib extends JavaPlugin {
         // Initialisation du fichier de configuration
         saveDefaultConfig();
         this.configManager = new ConfigManager(this);
+        LoggerFactory.initialize();
+        // Avant les composants : leur initialisation sur le thread principal est déjà mesurée
+        OwlProfiler.initialize();
 
         // Initialisation des composants core
         OwlComponentRegistry.initialize();
         OwlEventBus.initialize();
         OwlServiceLocator.initialize();
 
+        // Registre de métriques partagé avec les plugins dépendants
+        OwlMetrics metrics = new OwlMetrics();
+        OwlServiceLocator.registerService(OwlMetrics.class, metrics);
+        metrics.initialize();
+
         // Enregistrer les commandes (si nécessaire)
         registerCommands();
 
@@ -36,10 +50,14 @@ public final class OwlLib extends JavaPlugin {
 
     @Override
     public void onDisable() {
-        // Nettoyage des ressources
-        OwlComponentRegistry.shutdown();
-        OwlEventBus.shutdown();
-        OwlServiceLocator.shutdown();
+        // Nettoyage des ressources : vidage du bus puis arrêt des composants selon leurs dépendances
+        ShutdownCoordinator.shutdownAll(configManager.getIntValue("settings.shutdown-timeout", 10000));
+        OwlProfiler.shutdown();
+        // Les composants arrêtés ont pu modifier la configuration : écriture des fichiers en attente
+        configManager.shutdown();
+
+        // Derniers messages des composants arrêtés
+        LoggerFactory.shutdown();
 
         getLogger().info("OwlLib has been disabled!");
         instance = null;
@@ -56,7 +74,12 @@ public final class OwlLib extends JavaPlugin {
      * Enregistre les commandes fournies par OwlLib (si nécessaire)
      */
     private void registerCommands() {
-        // Si des commandes sont nécessaires, elles seraient enregistrées ici
+        PluginCommand owlInfo = getCommand("owlinfo");
+        if (owlInfo != null) {
+            OwlInfoCommand executor = new OwlInfoCommand(this);
+            owlInfo.setExecutor(executor);
+            owlInfo.setTabCompleter(executor);
+        }
     }
 
     /**
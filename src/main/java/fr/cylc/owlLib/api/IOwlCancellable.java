@@ -0,0 +1,17 @@
+package fr.cylc.owlLib.api;
+
+/**
+ * Interface pour les événements qui peuvent être annulés par un listener
+ */
+public interface IOwlCancellable {
+
+    /**
+     * Vérifie si l'événement a été annulé
+     */
+    boolean isCancelled();
+
+    /**
+     * Annule ou rétablit l'événement
+     */
+    void setCancelled(boolean cancelled);
+}
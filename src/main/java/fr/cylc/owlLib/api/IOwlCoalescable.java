@@ -0,0 +1,15 @@
+package fr.cylc.owlLib.api;
+
+/**
+ * Interface pour les événements dont seule la dernière valeur compte
+ * Lorsqu'un tel événement est publié, il remplace l'événement en attente de même type
+ * et de même clé au lieu d'être livré à son tour
+ */
+public interface IOwlCoalescable {
+
+    /**
+     * Renvoie la clé de regroupement (ex : l'UUID d'un joueur)
+     * @return La clé, ou null pour livrer cet événement sans regroupement
+     */
+    Object getCoalescingKey();
+}
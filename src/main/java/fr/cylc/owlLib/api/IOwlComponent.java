@@ -1,5 +1,8 @@
 package fr.cylc.owlLib.api;
 
+import java.util.Collection;
+import java.util.Collections;
+
 /**
  * Interface de base pour tous les composants du système
  * Respecte le principe d'Interface Segregation (I de SOLID)
@@ -25,4 +28,33 @@ public interface IOwlComponent {
      * Vérifie si le composant est initialisé
      */
     boolean isInitialized();
-}
\ No newline at end of file
+
+    /**
+     * Renvoie les IDs des composants et services qui doivent être initialisés avant celui-ci
+     * Les composants sans dépendance commune sont initialisés en parallèle.
+     */
+    default Collection<String> getDependencies() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Indique si le composant est activé à la demande plutôt qu'au démarrage du plugin
+     * Il est alors initialisé au premier OwlComponentRegistry.getComponent, et peut être arrêté
+     * puis réinitialisé plus tard s'il reste inutilisé ; initialize() doit donc pouvoir être rappelé après shutdown().
+     * Un composant paresseux dont dépend un composant non paresseux est initialisé au démarrage.
+     */
+    default boolean isLazy() {
+        return false;
+    }
+
+    /**
+     * Indique si initialize() et shutdown() doivent s'exécuter sur le thread principal du serveur
+     * C'est le cas par défaut, l'API Bukkit (listeners, scheduler, mondes) n'étant utilisable que depuis ce thread.
+     * Un composant thread-safe qui n'appelle pas l'API Bukkit renvoie false pour être démarré et arrêté
+     * en parallèle sur un pool ; il ne doit alors jamais attendre le thread principal (callSyncMethod...),
+     * occupé à attendre la fin du démarrage.
+     */
+    default boolean requiresMainThread() {
+        return true;
+    }
+}
@@ -0,0 +1,31 @@
+package fr.cylc.owlLib.api;
+
+import java.util.List;
+
+/**
+ * Index des composants d'un plugin, généré à la compilation à partir des annotations
+ * @OwlComponent et @OwlService et déclaré dans META-INF/services
+ * Chargé par OwlPluginBase lorsque getComponents() n'est pas redéfini.
+ */
+public interface IOwlComponentIndex {
+
+    /**
+     * Classes annotées, dans l'ordre de l'index
+     */
+    List<Class<? extends IOwlComponent>> getComponentTypes();
+
+    /**
+     * Types sous lesquels wire() enregistre les services dans OwlServiceLocator, dans l'ordre de l'index
+     * Vide pour un index généré avant leur prise en charge.
+     */
+    default List<Class<? extends IOwlService>> getServiceTypes() {
+        return List.of();
+    }
+
+    /**
+     * Instancie les composants par appel direct de leurs constructeurs et enregistre
+     * les services dans OwlServiceLocator
+     * @return Les composants créés, services compris, dans l'ordre de l'index
+     */
+    List<IOwlComponent> wire();
+}
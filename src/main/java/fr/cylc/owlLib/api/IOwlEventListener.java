@@ -17,4 +17,47 @@ public interface IOwlEventListener<T> {
      * @return La classe de l'événement
      */
     Class<T> getEventType();
-}
\ No newline at end of file
+
+    /**
+     * Renvoie le thread sur lequel ce listener doit être appelé
+     * Par défaut, les listeners sont appelés de manière asynchrone
+     */
+    default ThreadMode getThreadMode() {
+        return ThreadMode.ASYNC;
+    }
+
+    /**
+     * Renvoie la priorité de ce listener ; les priorités basses sont appelées en premier
+     */
+    default Priority getPriority() {
+        return Priority.NORMAL;
+    }
+
+    /**
+     * Si true, ce listener n'est pas appelé pour un événement IOwlCancellable déjà annulé
+     */
+    default boolean isIgnoringCancelled() {
+        return false;
+    }
+
+    /**
+     * Les priorités d'appel, de la première à la dernière
+     */
+    enum Priority {
+        LOWEST, LOW, NORMAL, HIGH, HIGHEST, MONITOR
+    }
+
+    /**
+     * Les threads sur lesquels un listener peut être appelé
+     */
+    enum ThreadMode {
+        /**
+         * Appelé par le moteur de livraison asynchrone du bus
+         */
+        ASYNC,
+        /**
+         * Appelé sur le thread principal du serveur, dans la limite du budget par tick
+         */
+        MAIN
+    }
+}
@@ -0,0 +1,23 @@
+package fr.cylc.owlLib.api;
+
+/**
+ * Interface pour les listeners qui répondent à une requête publiée via OwlEventBus.request
+ * Implémente le pattern Request/Reply au-dessus du bus d'événements
+ */
+public interface IOwlReplyListener<T, R> extends IOwlEventListener<T> {
+
+    /**
+     * Traite une requête et renvoie une réponse
+     * @param event L'événement reçu
+     * @return La réponse, ou null pour ne pas répondre
+     */
+    R onRequest(T event);
+
+    /**
+     * Lors d'une publication classique, la réponse est ignorée
+     */
+    @Override
+    default void onEvent(T event) {
+        onRequest(event);
+    }
+}
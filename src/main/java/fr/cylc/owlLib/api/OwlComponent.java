@@ -0,0 +1,17 @@
+package fr.cylc.owlLib.api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marque une classe IOwlComponent à instancier automatiquement au démarrage du plugin
+ * L'annotation est lue à la compilation par le processeur d'OwlLib, qui génère un index
+ * (IOwlComponentIndex) : aucun scan du classpath ni réflexion au démarrage.
+ * La classe doit être publique, concrète et posséder un constructeur public sans argument.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface OwlComponent {
+}
@@ -0,0 +1,21 @@
+package fr.cylc.owlLib.api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marque une classe IOwlService à instancier et enregistrer automatiquement dans OwlServiceLocator
+ * Comme @OwlComponent, l'annotation est traitée à la compilation.
+ * La classe doit être publique, concrète et posséder un constructeur public sans argument.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface OwlService {
+
+    /**
+     * Type sous lequel le service est enregistré ; par défaut la classe annotée elle-même
+     */
+    Class<? extends IOwlService> value() default IOwlService.class;
+}
@@ -0,0 +1,36 @@
+package fr.cylc.owlLib.api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marque une méthode comme listener du bus d'événements
+ * La méthode doit être non statique et prendre un unique paramètre : le type d'événement écouté.
+ * Les méthodes annotées d'un objet sont enregistrées en une fois via OwlEventBus.registerAll.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface OwlSubscribe {
+
+    /**
+     * Ordre d'appel par rapport aux autres listeners du même événement
+     */
+    IOwlEventListener.Priority priority() default IOwlEventListener.Priority.NORMAL;
+
+    /**
+     * Si true, la méthode n'est pas appelée pour un événement IOwlCancellable déjà annulé
+     */
+    boolean ignoreCancelled() default false;
+
+    /**
+     * Thread sur lequel la méthode est appelée
+     */
+    IOwlEventListener.ThreadMode threadMode() default IOwlEventListener.ThreadMode.ASYNC;
+
+    /**
+     * Motif de topic écouté (ex : "world.nether.player.*") ; vide pour recevoir tous les événements du type
+     */
+    String topic() default "";
+}
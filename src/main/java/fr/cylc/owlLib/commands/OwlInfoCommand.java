@@ -0,0 +1,253 @@
+package fr.cylc.owlLib.commands;
+
+import fr.cylc.owlLib.OwlLib;
+import fr.cylc.owlLib.core.EventBusStatistics;
+import fr.cylc.owlLib.core.OwlEventBus;
+import fr.cylc.owlLib.core.OwlServiceLocator;
+import fr.cylc.owlLib.metrics.MetricSample;
+import fr.cylc.owlLib.metrics.OwlMetrics;
+import fr.cylc.owlLib.profiler.OwlProfiler;
+import fr.cylc.owlLib.profiler.TickProfile;
+import fr.cylc.owlLib.utils.LatencyHistogram;
+import fr.cylc.owlLib.utils.LoggerFactory;
+import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Commande /owlinfo
+ * Sans argument : version et état du bus d'événements
+ * "events" : types d'événements et listeners les plus coûteux
+ * "metrics" : valeurs courantes du registre de métriques
+ * "config &lt;fichier&gt;" : compare le chargement d'une configuration par YAML et par le cache binaire
+ * "profile [dump|reset]" : pires ticks récents et ce qui les a occupés ; "dump" écrit les flame graphs
+ */
+public final class OwlInfoCommand implements TabExecutor {
+
+    private static final int TOP_ENTRIES = 10;
+    private static final int BENCHMARK_ITERATIONS = 5;
+    private static final int TOP_FRAMES = 3;
+    private static final List<String> SUBCOMMANDS = List.of("events", "metrics", "config", "profile");
+    private static final List<String> PROFILE_ACTIONS = List.of("dump", "reset");
+    private static final OwlProfiler.Frame PROFILER_FRAME = OwlProfiler.frame(OwlProfiler.Kind.COMMAND, "owlinfo");
+
+    private final OwlLib plugin;
+
+    public OwlInfoCommand(OwlLib plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        try (OwlProfiler.Span ignored = OwlProfiler.enter(PROFILER_FRAME)) {
+            return execute(sender, label, args);
+        }
+    }
+
+    private boolean execute(CommandSender sender, String label, String[] args) {
+        if (args.length == 0) {
+            showSummary(sender);
+            return true;
+        }
+
+        switch (args[0].toLowerCase(Locale.ROOT)) {
+            case "events":
+                showEvents(sender);
+                return true;
+            case "metrics":
+                showMetrics(sender);
+                return true;
+            case "config":
+                if (args.length < 2) {
+                    sender.sendMessage("Usage: /" + label + " config <file>");
+                    sender.sendMessage("Loaded configs: " + String.join(", ", plugin.getConfigManager().getCustomConfigNames()));
+                    return true;
+                }
+                benchmarkConfig(sender, args[1]);
+                return true;
+            case "profile":
+                profile(sender, label, args.length < 2 ? null : args[1].toLowerCase(Locale.ROOT));
+                return true;
+            default:
+                sender.sendMessage("Usage: /" + label + " [" + String.join("|", SUBCOMMANDS) + "]");
+                return true;
+        }
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        List<String> completions = new ArrayList<>();
+        if (args.length == 1) {
+            for (String subcommand : SUBCOMMANDS) {
+                if (subcommand.startsWith(args[0].toLowerCase(Locale.ROOT))) {
+                    completions.add(subcommand);
+                }
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("profile")) {
+            for (String action : PROFILE_ACTIONS) {
+                if (action.startsWith(args[1].toLowerCase(Locale.ROOT))) {
+                    completions.add(action);
+                }
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("config")) {
+            for (String fileName : plugin.getConfigManager().getCustomConfigNames()) {
+                if (fileName.startsWith(args[1])) {
+                    completions.add(fileName);
+                }
+            }
+        }
+        return completions;
+    }
+
+    private void showSummary(CommandSender sender) {
+        sender.sendMessage("OwlLib " + plugin.getDescription().getVersion());
+        sender.sendMessage("Event bus: " + OwlEventBus.getDispatchMode()
+                + ", metrics " + (OwlEventBus.isMetricsEnabled() ? "enabled" : "disabled")
+                + ", main-thread queue " + OwlEventBus.getMainThreadQueueDepth());
+        sender.sendMessage("Logging: " + LoggerFactory.getSuppressedCount() + " suppressed messages");
+    }
+
+    private void showEvents(CommandSender sender) {
+        EventBusStatistics statistics = OwlEventBus.getStatistics();
+        if (!statistics.isEnabled()) {
+            sender.sendMessage("Event metrics are disabled (events.metrics.enabled)");
+        }
+
+        sender.sendMessage("Busiest event types:");
+        showTop(sender, statistics.getEventTypes(),
+                Comparator.comparingLong((EventBusStatistics.Entry entry) -> entry.getExecution().getSum()).reversed());
+        sender.sendMessage("Slowest listeners (p99):");
+        showTop(sender, statistics.getListeners(),
+                Comparator.comparingLong((EventBusStatistics.Entry entry) -> entry.getExecution().getValueAtQuantile(0.99)).reversed());
+        sender.sendMessage("Main-thread queue: " + statistics.getMainThreadQueueDepth()
+                + ", coalesced: " + statistics.getCoalescedCount());
+    }
+
+    private void showMetrics(CommandSender sender) {
+        OwlMetrics metrics = OwlServiceLocator.getServiceOrNull(OwlMetrics.class);
+        if (metrics == null) {
+            sender.sendMessage("Metrics service is not available");
+            return;
+        }
+        if (!metrics.isEnabled()) {
+            sender.sendMessage("Metrics recording is disabled (metrics.enabled); only collected values are shown");
+        }
+
+        for (MetricSample sample : metrics.collect()) {
+            LatencyHistogram.Snapshot distribution = sample.getDistribution();
+            if (distribution == null) {
+                sender.sendMessage("  " + sample.getName() + sample.getLabels() + " = " + formatNumber(sample.getValue()));
+            } else if (distribution.getCount() > 0) {
+                sender.sendMessage("  " + sample.getName() + sample.getLabels()
+                        + " count=" + distribution.getCount()
+                        + " p50=" + formatNumber(distribution.getValueAtQuantile(0.5) * sample.getScale())
+                        + " p99=" + formatNumber(distribution.getValueAtQuantile(0.99) * sample.getScale()));
+            }
+        }
+    }
+
+    private void profile(CommandSender sender, String label, String action) {
+        if (!OwlProfiler.isInitialized()) {
+            sender.sendMessage("Profiler is not available");
+            return;
+        }
+        if ("reset".equals(action)) {
+            OwlProfiler.reset();
+            sender.sendMessage("Profiler data cleared");
+            return;
+        }
+        if ("dump".equals(action)) {
+            sender.sendMessage("Writing profiler dump...");
+            OwlProfiler.dump().whenComplete((folder, error) -> Bukkit.getScheduler().runTask(plugin, () ->
+                    sender.sendMessage(error == null
+                            ? "Collapsed stacks written to " + plugin.getDataFolder().toPath().relativize(folder)
+                            : "Could not write profiler dump: " + error.getMessage())));
+            return;
+        }
+        if (action != null) {
+            sender.sendMessage("Usage: /" + label + " profile [" + String.join("|", PROFILE_ACTIONS) + "]");
+            return;
+        }
+
+        sender.sendMessage("Profiler: " + (OwlProfiler.isEnabled() ? "enabled" : "disabled (profiler.enabled)")
+                + ", allocations " + (OwlProfiler.isTrackingAllocations() ? "tracked" : "not tracked")
+                + ", sampling " + (OwlProfiler.isSampling() ? "on slow ticks" : "off")
+                + ", " + OwlProfiler.getProfiledTicks() + " ticks profiled");
+        List<TickProfile> ticks = OwlProfiler.getWorstTicks();
+        if (ticks.isEmpty()) {
+            sender.sendMessage("  (no ticks recorded)");
+            return;
+        }
+
+        sender.sendMessage("Worst ticks:");
+        for (TickProfile tick : ticks.subList(0, Math.min(TOP_ENTRIES, ticks.size()))) {
+            sender.sendMessage("  #" + tick.getTick() + " " + formatMillis(tick.getDurationNanos())
+                    + " | OwlLib " + formatMillis(tick.getOwlLibNanos())
+                    + " | allocated " + formatBytes(tick.getAllocatedBytes())
+                    + (tick.getSampleCount() > 0 ? " | " + tick.getSampleCount() + " samples" : ""));
+            for (TickProfile.Entry frame : tick.getTopFrames(TOP_FRAMES)) {
+                sender.sendMessage("      " + frame.getName() + " " + formatMillis(frame.getSelfNanos())
+                        + ", " + formatBytes(frame.getSelfBytes()) + ", " + frame.getCalls() + " calls");
+            }
+        }
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + "B";
+        }
+        return bytes < 1024 * 1024
+                ? String.format("%.1fKB", bytes / 1024.0)
+                : String.format("%.1fMB", bytes / (1024.0 * 1024.0));
+    }
+
+    private static String formatNumber(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+                ? Long.toString((long) value)
+                : String.format("%.6g", value);
+    }
+
+    private void benchmarkConfig(CommandSender sender, String fileName) {
+        sender.sendMessage("Benchmarking '" + fileName + "'...");
+        // Plusieurs analyses d'un gros fichier bloqueraient le tick : mesure hors du thread principal
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            String result;
+            try {
+                result = plugin.getConfigManager().benchmarkLoad(fileName, BENCHMARK_ITERATIONS).format();
+            } catch (IOException e) {
+                result = "Could not benchmark '" + fileName + "': " + e.getMessage();
+            }
+            String message = result;
+            Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+        });
+    }
+
+    private static void showTop(CommandSender sender, List<EventBusStatistics.Entry> entries,
+                                Comparator<EventBusStatistics.Entry> order) {
+        List<EventBusStatistics.Entry> sorted = new ArrayList<>(entries);
+        sorted.removeIf(entry -> entry.getExecution().getCount() == 0 && entry.getRejected() == 0);
+        sorted.sort(order);
+        if (sorted.isEmpty()) {
+            sender.sendMessage("  (none)");
+            return;
+        }
+
+        for (EventBusStatistics.Entry entry : sorted.subList(0, Math.min(TOP_ENTRIES, sorted.size()))) {
+            sender.sendMessage("  " + entry.getName()
+                    + " | exec " + entry.getExecution().format()
+                    + " | wait p99=" + String.format("%.2fms", entry.getQueueWait().getValueAtQuantile(0.99) / 1_000_000.0)
+                    + " | failed " + entry.getFailed() + ", rejected " + entry.getRejected());
+        }
+    }
+}
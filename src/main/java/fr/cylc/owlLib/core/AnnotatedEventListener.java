@@ -0,0 +1,199 @@
+package fr.cylc.owlLib.core;
+
+import fr.cylc.owlLib.api.IOwlReplyListener;
+import fr.cylc.owlLib.api.OwlSubscribe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * Listener construit à partir d'une méthode annotée @OwlSubscribe
+ * L'appel de la méthode est compilé une seule fois à l'enregistrement, via LambdaMetafactory,
+ * puis porté par une copie cachée de DirectEventListener propre à la méthode : chaque copie a
+ * ses propres sites d'appel, qui ne voient qu'un seul invoker et restent monomorphes.
+ * Une méthode qui renvoie une valeur répond aux requêtes publiées via OwlEventBus.request.
+ */
+abstract class AnnotatedEventListener implements IOwlReplyListener<Object, Object> {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType REPLY_INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, Object.class, Class.class,
+            BiConsumer.class, BiFunction.class, OwlSubscribe.class, String.class);
+    private static final byte[] TEMPLATE = readTemplate();
+
+    private final Class<Object> eventType;
+    private final OwlSubscribe options;
+    private final String name;
+
+    AnnotatedEventListener(Class<Object> eventType, OwlSubscribe options, String name) {
+        this.name = name;
+        this.eventType = eventType;
+        this.options = options;
+    }
+
+    @Override
+    public Class<Object> getEventType() {
+        return eventType;
+    }
+
+    @Override
+    public ThreadMode getThreadMode() {
+        return options.threadMode();
+    }
+
+    @Override
+    public Priority getPriority() {
+        return options.priority();
+    }
+
+    @Override
+    public boolean isIgnoringCancelled() {
+        return options.ignoreCancelled();
+    }
+
+    /**
+     * Renvoie la méthode d'origine sous la forme "Classe#méthode"
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Renvoie le motif de topic déclaré par l'annotation, ou null
+     */
+    String getTopic() {
+        return options.topic().isEmpty() ? null : TopicTrie.validatePattern(options.topic());
+    }
+
+    /**
+     * Crée un listener pour chaque méthode annotée de l'objet, y compris celles héritées
+     * @param lookup Lookup utilisé pour accéder aux méthodes ; celui du plugin appelant permet
+     *               de compiler les méthodes privées en appels directs
+     */
+    @SuppressWarnings("unchecked")
+    static List<AnnotatedEventListener> scan(Object subscriber, MethodHandles.Lookup lookup) {
+        List<AnnotatedEventListener> listeners = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Class<?> type = subscriber.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                OwlSubscribe options = method.getAnnotation(OwlSubscribe.class);
+                if (options == null || method.isBridge() || method.isSynthetic()) {
+                    continue;
+                }
+                if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 1
+                        || method.getParameterTypes()[0].isPrimitive()) {
+                    throw new IllegalArgumentException("@OwlSubscribe method " + type.getName() + "#" + method.getName()
+                            + " must be an instance method taking a single event parameter");
+                }
+                // Une méthode redéfinie n'est enregistrée qu'une fois, au niveau le plus spécifique
+                if (!seen.add(method.getName() + method.getParameterTypes()[0].getName())) {
+                    continue;
+                }
+
+                Class<Object> eventType = (Class<Object>) method.getParameterTypes()[0];
+                String name = type.getName() + "#" + method.getName();
+                if (method.getReturnType() == void.class) {
+                    listeners.add(create(subscriber, eventType,
+                            (BiConsumer<Object, Object>) createInvoker(method, lookup, BiConsumer.class, INVOKER_TYPE),
+                            null, options, name));
+                } else {
+                    listeners.add(create(subscriber, eventType, null,
+                            (BiFunction<Object, Object, Object>) createInvoker(method, lookup, BiFunction.class, REPLY_INVOKER_TYPE),
+                            options, name));
+                }
+            }
+        }
+        return listeners;
+    }
+
+    /**
+     * Instancie le listener dans une copie cachée de DirectEventListener, propre à cette méthode
+     * La copie n'est retenue que par le listener et se décharge avec lui. Si le modèle est
+     * introuvable ou ne peut être redéfini, le listener partage la classe DirectEventListener.
+     */
+    private static AnnotatedEventListener create(Object target, Class<Object> eventType, BiConsumer<Object, Object> invoker,
+                                                 BiFunction<Object, Object, Object> replyInvoker, OwlSubscribe options,
+                                                 String name) {
+        if (TEMPLATE != null) {
+            try {
+                MethodHandles.Lookup copy = MethodHandles.lookup().defineHiddenClass(TEMPLATE, true);
+                return (AnnotatedEventListener) copy.findConstructor(copy.lookupClass(), CONSTRUCTOR_TYPE)
+                        .invoke(target, eventType, invoker, replyInvoker, options, name);
+            } catch (Throwable ignored) {
+                // Repli sur la classe partagée : même comportement, site d'appel commun
+            }
+        }
+        return new DirectEventListener(target, eventType, invoker, replyInvoker, options, name);
+    }
+
+    private static byte[] readTemplate() {
+        try (InputStream in = DirectEventListener.class.getResourceAsStream("DirectEventListener.class")) {
+            return in == null ? null : in.readAllBytes();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Compile l'appel d'une méthode en BiConsumer(cible, événement), ou en BiFunction si elle renvoie une valeur
+     * Si le lookup n'a pas tous les droits sur la classe (autre class loader), l'appel passe par
+     * un MethodHandle déjà adapté, ce qui reste sans réflexion au moment de la livraison.
+     */
+    private static Object createInvoker(Method method, MethodHandles.Lookup lookup, Class<?> functionalType,
+                                        MethodType erasedType) {
+        try {
+            Class<?> owner = method.getDeclaringClass();
+            MethodHandles.Lookup ownerLookup = MethodHandles.privateLookupIn(owner, lookup);
+            MethodHandle handle = ownerLookup.unreflect(method);
+            boolean replies = functionalType == BiFunction.class;
+
+            if (ownerLookup.hasFullPrivilegeAccess()) {
+                // Les valeurs primitives renvoyées sont converties en leur type enveloppe
+                Class<?> returnType = replies ? MethodType.methodType(method.getReturnType()).wrap().returnType() : void.class;
+                CallSite site = LambdaMetafactory.metafactory(ownerLookup, replies ? "apply" : "accept",
+                        MethodType.methodType(functionalType), erasedType, handle,
+                        MethodType.methodType(returnType, owner, method.getParameterTypes()[0]));
+                return site.getTarget().invoke();
+            }
+
+            MethodHandle adapted = handle.asType(erasedType);
+            if (replies) {
+                return (BiFunction<Object, Object, Object>) (target, event) -> {
+                    try {
+                        return adapted.invokeExact(target, event);
+                    } catch (RuntimeException | Error e) {
+                        throw e;
+                    } catch (Throwable t) {
+                        throw new IllegalStateException(t);
+                    }
+                };
+            }
+            return (BiConsumer<Object, Object>) (target, event) -> {
+                try {
+                    adapted.invokeExact(target, event);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new IllegalStateException(t);
+                }
+            };
+        } catch (Throwable t) {
+            throw new IllegalArgumentException("Cannot bind @OwlSubscribe method "
+                    + method.getDeclaringClass().getName() + "#" + method.getName(), t);
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package fr.cylc.owlLib.core;
+
+import fr.cylc.owlLib.api.IOwlComponent;
+import fr.cylc.owlLib.exceptions.OwlException;
+import fr.cylc.owlLib.profiler.OwlProfiler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Graphe de dépendances entre composants (IOwlComponent.getDependencies)
+ * L'initialisation suit l'ordre topologique : chaque composant démarre dès que ses dépendances
+ * sont prêtes. Les composants qui requièrent le thread principal (le cas par défaut) sont exécutés
+ * par le thread appelant ; ceux qui déclarent requiresMainThread() false s'exécutent en parallèle sur un pool fork-join.
+ */
+public final class ComponentGraph {
+
+    private static final long MAIN_THREAD_POLL_MILLIS = 10;
+
+    private final Map<String, List<String>> dependencies;
+    private final List<IOwlComponent> order;
+
+    private ComponentGraph(Map<String, List<String>> dependencies, List<IOwlComponent> order) {
+        this.dependencies = dependencies;
+        this.order = order;
+    }
+
+    /**
+     * Construit le graphe et vérifie qu'il est acyclique
+     * Une dépendance absente du graphe doit déjà être enregistrée (composant ou service initialisé).
+     * @throws OwlException.DependencyCycleException si les dépendances forment un cycle
+     * @throws OwlException.ComponentNotFoundException si une dépendance est introuvable
+     */
+    public static ComponentGraph of(Collection<? extends IOwlComponent> components) throws OwlException {
+        return build(components, true);
+    }
+
+    /**
+     * Arrête les composants dans l'ordre inverse de leurs dépendances : un composant s'arrête
+     * une fois que tous ceux qui en dépendent sont arrêtés, les branches indépendantes en parallèle.
+     * Comme pour l'initialisation, shutdown() s'exécute sur le thread appelant (le thread principal)
+     * sauf pour les composants qui déclarent requiresMainThread() false.
+     * Les doublons (même instance ou même ID) ne sont arrêtés qu'une fois et les dépendances
+     * externes sont ignorées ; en cas de cycle, l'arrêt se fait séquentiellement en ordre inverse.
+     * @param deadlineNanos Échéance (System.nanoTime) au-delà de laquelle les composants restants sont signalés
+     */
+    static void shutdownAll(Collection<? extends IOwlComponent> components, long deadlineNanos, ShutdownReport report) {
+        ComponentGraph graph;
+        try {
+            graph = build(components, false);
+        } catch (OwlException e) {
+            // Cycle : chaque composant est considéré comme dépendant du précédent
+            Map<String, IOwlComponent> distinct = new LinkedHashMap<>();
+            for (IOwlComponent component : components) {
+                distinct.putIfAbsent(component.getId(), component);
+            }
+            List<IOwlComponent> sequential = new ArrayList<>(distinct.values());
+            Map<String, List<String>> chain = new HashMap<>();
+            for (int i = 0; i < sequential.size(); i++) {
+                chain.put(sequential.get(i).getId(),
+                        i == 0 ? Collections.emptyList() : List.of(sequential.get(i - 1).getId()));
+            }
+            graph = new ComponentGraph(chain, sequential);
+        }
+        graph.shutdownAll(deadlineNanos, report);
+    }
+
+    private void shutdownAll(long deadlineNanos, ShutdownReport report) {
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : dependencies.entrySet()) {
+            for (String dependency : entry.getValue()) {
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+
+        BlockingQueue<Runnable> mainThreadTasks = new LinkedBlockingQueue<>();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        Map<String, CompletableFuture<Void>> stopped = new LinkedHashMap<>();
+
+        try {
+            for (int i = order.size() - 1; i >= 0; i--) {
+                IOwlComponent component = order.get(i);
+                List<String> waitFor = dependents.getOrDefault(component.getId(), Collections.emptyList());
+                CompletableFuture<?>[] downstream = new CompletableFuture<?>[waitFor.size()];
+                for (int j = 0; j < downstream.length; j++) {
+                    downstream[j] = stopped.get(waitFor.get(j));
+                }
+
+                // Un dépendant en échec n'empêche pas l'arrêt de ses dépendances
+                CompletableFuture<Void> node = CompletableFuture.allOf(downstream)
+                        .handle((ignored, error) -> null)
+                        .thenCompose(ignored -> component.isLazy() && !component.isInitialized()
+                                // Composant paresseux jamais activé (ou déjà désactivé) : rien à arrêter
+                                ? CompletableFuture.<Void>completedFuture(null)
+                                : CompletableFuture.runAsync(() -> shutdown(component),
+                                        component.requiresMainThread() ? mainThreadTasks::add : pool))
+                        .handle((ignored, error) -> {
+                            if (error != null) {
+                                report.failed(component.getId(), unwrap(error));
+                            } else {
+                                report.stopped(component.getId());
+                            }
+                            return null;
+                        });
+                stopped.put(component.getId(), node);
+            }
+
+            CompletableFuture<Void> all = CompletableFuture.allOf(stopped.values().toArray(new CompletableFuture<?>[0]));
+            while (!all.isDone()) {
+                long remaining = deadlineNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                Runnable task = mainThreadTasks.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(MAIN_THREAD_POLL_MILLIS)),
+                        TimeUnit.NANOSECONDS);
+                if (task != null) {
+                    task.run();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdown();
+        }
+
+        for (Map.Entry<String, CompletableFuture<Void>> entry : stopped.entrySet()) {
+            if (!entry.getValue().isDone()) {
+                report.timedOut(entry.getKey());
+            }
+        }
+    }
+
+    private static ComponentGraph build(Collection<? extends IOwlComponent> components, boolean strict) throws OwlException {
+        Map<String, IOwlComponent> nodes = new LinkedHashMap<>();
+        for (IOwlComponent component : components) {
+            IOwlComponent previous = nodes.putIfAbsent(component.getId(), component);
+            if (strict && previous != null) {
+                throw new OwlException.ConfigurationException("Duplicate component id '" + component.getId() + "'");
+            }
+        }
+
+        Map<String, List<String>> dependencies = new HashMap<>();
+        for (IOwlComponent component : nodes.values()) {
+            List<String> internal = new ArrayList<>();
+            for (String dependency : component.getDependencies()) {
+                if (nodes.containsKey(dependency)) {
+                    internal.add(dependency);
+                } else if (strict && !isAvailable(dependency)) {
+                    throw new OwlException.ComponentNotFoundException(dependency + " (required by '" + component.getId() + "')");
+                }
+            }
+            dependencies.put(component.getId(), internal);
+        }
+
+        return new ComponentGraph(dependencies, sort(nodes, dependencies));
+    }
+
+    /**
+     * Renvoie les composants dans un ordre compatible avec leurs dépendances
+     */
+    public List<IOwlComponent> getOrder() {
+        return order;
+    }
+
+    /**
+     * Renvoie les IDs des composants du graphe dont dépend un composant
+     */
+    public List<String> getDependencies(String id) {
+        return dependencies.getOrDefault(id, Collections.emptyList());
+    }
+
+    /**
+     * Initialise tous les composants non encore initialisés et attend la fin du démarrage
+     * Les composants paresseux ne sont initialisés que si un composant non paresseux en dépend.
+     * Échoue dès qu'un composant lève une exception ou dépasse son délai ; les branches
+     * indépendantes déjà lancées terminent leur initialisation.
+     *
+     * Le délai ne borne que l'attente : un initialize() en retard n'est pas annulé. Le rapport d'échec
+     * contient la pile du thread bloqué ; un composant du pool est interrompu, un composant du thread principal
+     * ne peut l'être et l'échec n'est signalé qu'à la fin de son initialize().
+     * @param timeoutMillis Délai maximal d'initialisation de chaque composant, compté à partir du début de son initialize()
+     */
+    public void initializeAll(long timeoutMillis) throws OwlException {
+        BlockingQueue<Runnable> mainThreadTasks = new LinkedBlockingQueue<>();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        CompletableFuture<Void> failure = new CompletableFuture<>();
+        Map<String, CompletableFuture<Void>> started = new HashMap<>();
+        Set<String> required = eagerClosure();
+        Map<String, Thread> running = new ConcurrentHashMap<>();
+
+        try {
+            for (IOwlComponent component : order) {
+                List<String> upstreamIds = dependencies.get(component.getId());
+                CompletableFuture<?>[] upstream = new CompletableFuture<?>[upstreamIds.size()];
+                for (int i = 0; i < upstream.length; i++) {
+                    upstream[i] = started.get(upstreamIds.get(i));
+                }
+
+                CompletableFuture<Void> node = CompletableFuture.allOf(upstream).thenCompose(ignored -> {
+                    if (component.isInitialized() || !required.contains(component.getId())) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    CompletableFuture<Void> task = new CompletableFuture<>();
+                    Executor executor = component.requiresMainThread() ? mainThreadTasks::add : pool;
+                    executor.execute(() -> {
+                        // Le délai court à partir du démarrage de la tâche : les composants du thread principal
+                        // attendent leur tour dans la file, ce temps ne leur est pas compté
+                        task.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+                        try {
+                            initialize(component, running);
+                            task.complete(null);
+                        } catch (Throwable e) {
+                            task.completeExceptionally(e);
+                        }
+                    });
+                    return task.handle((done, error) -> {
+                        if (error != null) {
+                            throw new CompletionException(new OwlException(describe(component, error),
+                                    stuck(component, unwrap(error), running.get(component.getId()))));
+                        }
+                        return done;
+                    });
+                });
+                node.whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        failure.completeExceptionally(unwrap(error));
+                    }
+                });
+                started.put(component.getId(), node);
+            }
+
+            CompletableFuture<Void> all = CompletableFuture.allOf(started.values().toArray(new CompletableFuture<?>[0]));
+            CompletableFuture<Object> done = CompletableFuture.anyOf(all, failure);
+            while (!done.isDone()) {
+                Runnable task = mainThreadTasks.poll(MAIN_THREAD_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    task.run();
+                }
+            }
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OwlException("Interrupted while initializing components", e);
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e.getCause());
+            if (cause instanceof OwlException) {
+                throw (OwlException) cause;
+            }
+            throw new OwlException("Failed to initialize components", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * IDs des composants non paresseux et de toutes leurs dépendances
+     */
+    private Set<String> eagerClosure() {
+        Set<String> required = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        for (IOwlComponent component : order) {
+            if (!component.isLazy()) {
+                pending.add(component.getId());
+            }
+        }
+        while (!pending.isEmpty()) {
+            String id = pending.poll();
+            if (required.add(id)) {
+                pending.addAll(dependencies.get(id));
+            }
+        }
+        return required;
+    }
+
+    /**
+     * Initialise un composant en notant le thread qui l'exécute ; sur le thread principal, son temps est attribué par le profileur
+     */
+    private static void initialize(IOwlComponent component, Map<String, Thread> running) {
+        running.put(component.getId(), Thread.currentThread());
+        try (OwlProfiler.Span ignored = OwlProfiler.enter(component)) {
+            component.initialize();
+        } finally {
+            running.remove(component.getId());
+        }
+    }
+
+    /**
+     * Arrête un composant ; sur le thread principal, son temps est attribué par le profileur
+     */
+    private static void shutdown(IOwlComponent component) {
+        try (OwlProfiler.Span ignored = OwlProfiler.enter(component)) {
+            component.shutdown();
+        }
+    }
+
+    /**
+     * Pour un délai dépassé, remplace la cause par la pile du thread encore occupé par initialize()
+     * et interrompt ce thread s'il appartient au pool
+     */
+    private static Throwable stuck(IOwlComponent component, Throwable error, Thread thread) {
+        if (!(error instanceof TimeoutException) || thread == null) {
+            return error;
+        }
+
+        TimeoutException stuck = new TimeoutException("initialize() of '" + component.getId()
+                + "' still running on thread " + thread.getName());
+        stuck.setStackTrace(thread.getStackTrace());
+        if (!component.requiresMainThread()) {
+            thread.interrupt();
+        }
+        return stuck;
+    }
+
+    private static String describe(IOwlComponent component, Throwable error) {
+        if (unwrap(error) instanceof TimeoutException) {
+            return "Component '" + component.getId() + "' did not initialize within the timeout";
+        }
+        return "Failed to initialize component '" + component.getId() + "'";
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static boolean isAvailable(String id) {
+        IOwlComponent component = OwlComponentRegistry.hasComponent(id) ? OwlComponentRegistry.getComponent(id) : null;
+        if (component == null) {
+            component = OwlServiceLocator.lookupById(id);
+        }
+        return component != null && component.isInitialized();
+    }
+
+    /**
+     * Tri topologique (Kahn) en conservant l'ordre de déclaration entre composants indépendants
+     */
+    private static List<IOwlComponent> sort(Map<String, IOwlComponent> nodes, Map<String, List<String>> dependencies)
+            throws OwlException.DependencyCycleException {
+        Map<String, Integer> pending = new HashMap<>();
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (String id : nodes.keySet()) {
+            pending.put(id, dependencies.get(id).size());
+            for (String dependency : dependencies.get(id)) {
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(id);
+            }
+        }
+
+        Deque<String> ready = new ArrayDeque<>();
+        for (String id : nodes.keySet()) {
+            if (pending.get(id) == 0) {
+                ready.add(id);
+            }
+        }
+
+        List<IOwlComponent> order = new ArrayList<>(nodes.size());
+        while (!ready.isEmpty()) {
+            String id = ready.poll();
+            order.add(nodes.get(id));
+            for (String dependent : dependents.getOrDefault(id, Collections.emptyList())) {
+                if (pending.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if (order.size() < nodes.size()) {
+            throw new OwlException.DependencyCycleException(findCycle(nodes.keySet(), dependencies, pending));
+        }
+        return Collections.unmodifiableList(order);
+    }
+
+    /**
+     * Extrait un cycle parmi les composants restés bloqués après le tri
+     */
+    private static List<String> findCycle(Set<String> ids, Map<String, List<String>> dependencies,
+                                          Map<String, Integer> pending) {
+        String start = null;
+        for (String id : ids) {
+            if (pending.get(id) > 0) {
+                start = id;
+                break;
+            }
+        }
+
+        List<String> path = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        String current = start;
+        while (visited.add(current)) {
+            path.add(current);
+            for (String dependency : dependencies.get(current)) {
+                if (pending.get(dependency) > 0) {
+                    current = dependency;
+                    break;
+                }
+            }
+        }
+
+        List<String> cycle = new ArrayList<>(path.subList(path.indexOf(current), path.size()));
+        cycle.add(current);
+        return cycle;
+    }
+}
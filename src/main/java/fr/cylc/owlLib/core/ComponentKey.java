@@ -0,0 +1,58 @@
+package fr.cylc.owlLib.core;
+
+import fr.cylc.owlLib.api.IOwlComponent;
+
+import java.util.Objects;
+
+/**
+ * Clé typée d'un composant du registre
+ * Se déclare une fois en constante puis remplace getComponent(String) et son cast non vérifié :
+ * <pre>
+ * static final ComponentKey&lt;ArenaManager&gt; ARENAS = ComponentKey.of("arenas", ArenaManager.class);
+ * ArenaManager arenas = OwlComponentRegistry.getComponent(ARENAS);
+ * </pre>
+ */
+public final class ComponentKey<T extends IOwlComponent> {
+
+    private final String id;
+    private final Class<T> type;
+
+    private ComponentKey(String id, Class<T> type) {
+        this.id = Objects.requireNonNull(id, "id");
+        this.type = Objects.requireNonNull(type, "type");
+    }
+
+    public static <T extends IOwlComponent> ComponentKey<T> of(String id, Class<T> type) {
+        return new ComponentKey<>(id, type);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ComponentKey)) {
+            return false;
+        }
+        ComponentKey<?> other = (ComponentKey<?>) o;
+        return id.equals(other.id) && type == other.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * id.hashCode() + type.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ComponentKey[" + id + ": " + type.getSimpleName() + "]";
+    }
+}
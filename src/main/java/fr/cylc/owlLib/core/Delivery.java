@@ -0,0 +1,28 @@
+package fr.cylc.owlLib.core;
+
+/**
+ * Événement en attente de livraison à un ensemble d'inscriptions
+ */
+final class Delivery {
+
+    final Object event;
+    final Subscription[] targets;
+
+    Delivery(Object event, Subscription[] targets) {
+        this.event = event;
+        this.targets = targets;
+    }
+
+    /**
+     * Appelle toutes les inscriptions sur le thread courant
+     */
+    void deliver() {
+        deliver(event, targets);
+    }
+
+    static void deliver(Object event, Subscription[] targets) {
+        for (Subscription subscription : targets) {
+            OwlEventBus.invokeListener(subscription, event);
+        }
+    }
+}
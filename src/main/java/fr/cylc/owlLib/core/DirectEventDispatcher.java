@@ -0,0 +1,24 @@
+package fr.cylc.owlLib.core;
+
+/**
+ * Moteur de livraison synchrone, utilisé lorsque "events.async-processing" est désactivé
+ * Les listeners sont appelés directement sur le thread qui publie
+ */
+final class DirectEventDispatcher implements EventDispatcher {
+
+    @Override
+    public boolean dispatch(Object event, Subscription[] targets, OwlEventBus.OverflowPolicy policy) {
+        Delivery.deliver(event, targets);
+        return true;
+    }
+
+    @Override
+    public boolean isIdle() {
+        return true;
+    }
+
+    @Override
+    public void shutdown() {
+        // Aucun thread à arrêter
+    }
+}
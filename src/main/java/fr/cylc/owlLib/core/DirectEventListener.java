@@ -0,0 +1,44 @@
+package fr.cylc.owlLib.core;
+
+import fr.cylc.owlLib.api.OwlSubscribe;
+
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * Modèle de listener pour une méthode @OwlSubscribe
+ * AnnotatedEventListener en définit une copie cachée par méthode : les appels à l'invoker
+ * ci-dessous ne sont donc jamais partagés entre deux méthodes abonnées.
+ */
+final class DirectEventListener extends AnnotatedEventListener {
+
+    private final Object target;
+    private final BiConsumer<Object, Object> invoker;
+    private final BiFunction<Object, Object, Object> replyInvoker;
+
+    DirectEventListener(Object target, Class<Object> eventType, BiConsumer<Object, Object> invoker,
+                        BiFunction<Object, Object, Object> replyInvoker, OwlSubscribe options, String name) {
+        super(eventType, options, name);
+        this.target = target;
+        this.invoker = invoker;
+        this.replyInvoker = replyInvoker;
+    }
+
+    @Override
+    public void onEvent(Object event) {
+        if (replyInvoker != null) {
+            replyInvoker.apply(target, event);
+        } else {
+            invoker.accept(target, event);
+        }
+    }
+
+    @Override
+    public Object onRequest(Object event) {
+        if (replyInvoker != null) {
+            return replyInvoker.apply(target, event);
+        }
+        invoker.accept(target, event);
+        return null;
+    }
+}
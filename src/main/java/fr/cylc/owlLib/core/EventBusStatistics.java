@@ -0,0 +1,133 @@
+package fr.cylc.owlLib.core;
+
+import fr.cylc.owlLib.utils.LatencyHistogram;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Instantané des statistiques du bus d'événements
+ * Obtenu via OwlEventBus.getStatistics()
+ */
+public final class EventBusStatistics {
+
+    private final boolean enabled;
+    private final List<Entry> eventTypes;
+    private final List<Entry> listeners;
+    private final int mainThreadQueueDepth;
+    private final long coalescedCount;
+
+    EventBusStatistics(boolean enabled, List<Entry> eventTypes, List<Entry> listeners, int mainThreadQueueDepth,
+                       long coalescedCount) {
+        this.enabled = enabled;
+        this.eventTypes = Collections.unmodifiableList(eventTypes);
+        this.listeners = Collections.unmodifiableList(listeners);
+        this.mainThreadQueueDepth = mainThreadQueueDepth;
+        this.coalescedCount = coalescedCount;
+    }
+
+    /**
+     * Vérifie si l'instrumentation était active lors de la capture
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Statistiques par classe d'événement concrète
+     */
+    public List<Entry> getEventTypes() {
+        return eventTypes;
+    }
+
+    /**
+     * Statistiques par listener
+     */
+    public List<Entry> getListeners() {
+        return listeners;
+    }
+
+    public int getMainThreadQueueDepth() {
+        return mainThreadQueueDepth;
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    /**
+     * Statistiques d'un type d'événement ou d'un listener
+     */
+    public static final class Entry {
+
+        private final String name;
+        private final long published;
+        private final long delivered;
+        private final long failed;
+        private final long rejected;
+        private final LatencyHistogram.Snapshot queueWait;
+        private final LatencyHistogram.Snapshot execution;
+
+        Entry(String name, long published, long delivered, long failed, long rejected,
+              LatencyHistogram.Snapshot queueWait, LatencyHistogram.Snapshot execution) {
+            this.name = name;
+            this.published = published;
+            this.delivered = delivered;
+            this.failed = failed;
+            this.rejected = rejected;
+            this.queueWait = queueWait;
+            this.execution = execution;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Nombre de publications (toujours 0 pour un listener)
+         */
+        public long getPublished() {
+            return published;
+        }
+
+        /**
+         * Nombre d'appels de listener terminés sans erreur
+         */
+        public long getDelivered() {
+            return delivered;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        /**
+         * Nombre d'événements abandonnés par une politique de débordement
+         */
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * Temps passé en file entre la publication et l'appel du listener
+         */
+        public LatencyHistogram.Snapshot getQueueWait() {
+            return queueWait;
+        }
+
+        /**
+         * Temps d'exécution des listeners
+         */
+        public LatencyHistogram.Snapshot getExecution() {
+            return execution;
+        }
+
+        /**
+         * Additionne les statistiques de deux entrées de même nom
+         */
+        public Entry merge(Entry other) {
+            return new Entry(name, published + other.published, delivered + other.delivered, failed + other.failed,
+                    rejected + other.rejected, queueWait.merge(other.queueWait), execution.merge(other.execution));
+        }
+    }
+}
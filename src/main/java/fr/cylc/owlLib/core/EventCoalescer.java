@@ -0,0 +1,158 @@
+package fr.cylc.owlLib.core;
+
+import fr.cylc.owlLib.api.IOwlCoalescable;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Regroupe les événements IOwlCoalescable par type, topic et clé
+ * Un événement publié remplace celui qui attend avec la même clé ; les survivants sont
+ * transmis au bus à la fin de chaque fenêtre ("events.coalescing.window-ms"), ou à chaque
+ * tick si la fenêtre vaut 0.
+ * La transmission se fait toujours sur le thread du regroupement, jamais sur le thread principal : selon
+ * la politique de débordement, une publication peut y livrer les événements elle-même (CALLER_RUNS).
+ */
+final class EventCoalescer {
+
+    private final Map<CoalescingKey, Object> pending = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+    private final Logger logger;
+    private final ScheduledExecutorService scheduler;
+    private final BukkitTask tickTask;
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+
+    EventCoalescer(Plugin plugin, long windowMillis, Logger logger) {
+        this.logger = logger;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OwlLib-EventCoalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (windowMillis > 0) {
+            this.scheduler.scheduleAtFixedRate(this::flushSafely, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+            this.tickTask = null;
+        } else {
+            // Le tick ne fait que déclencher la transmission, qui a lieu sur le thread du regroupement
+            this.tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::queueFlush, 1L, 1L);
+        }
+    }
+
+    /**
+     * Met un événement en attente
+     * @return false si l'événement n'a pas de clé et doit être livré immédiatement
+     */
+    boolean offer(String topic, IOwlCoalescable event) {
+        Object key = event.getCoalescingKey();
+        if (key == null) {
+            return false;
+        }
+
+        if (pending.put(new CoalescingKey(event.getClass(), topic, key), event) != null) {
+            coalesced.increment();
+        }
+        return true;
+    }
+
+    /**
+     * Transmet au bus tous les événements en attente
+     */
+    void flush() {
+        Iterator<Map.Entry<CoalescingKey, Object>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<CoalescingKey, Object> entry = iterator.next();
+            // Ne retire que la valeur lue : un remplacement concurrent sera livré au prochain flush
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                OwlEventBus.publishNow(entry.getKey().topic, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Demande une transmission au thread du regroupement, sauf si une transmission attend déjà
+     */
+    private void queueFlush() {
+        if (!pending.isEmpty() && flushQueued.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(() -> {
+                    flushQueued.set(false);
+                    flushSafely();
+                });
+            } catch (RejectedExecutionException e) {
+                // Regroupement arrêté : les événements restants sont livrés par l'arrêt du bus
+                flushQueued.set(false);
+            }
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error while flushing coalesced events", e);
+        }
+    }
+
+    /**
+     * Nombre d'événements en attente de livraison
+     */
+    int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Nombre d'événements remplacés par un plus récent avant leur livraison
+     */
+    long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    void shutdown() {
+        if (tickTask != null) {
+            tickTask.cancel();
+        }
+        scheduler.shutdown();
+    }
+
+    private static final class CoalescingKey {
+        private final Class<?> eventType;
+        private final String topic;
+        private final Object key;
+
+        private CoalescingKey(Class<?> eventType, String topic, Object key) {
+            this.eventType = eventType;
+            this.topic = topic;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CoalescingKey)) {
+                return false;
+            }
+            CoalescingKey other = (CoalescingKey) o;
+            return eventType == other.eventType && Objects.equals(topic, other.topic) && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(eventType, topic, key);
+        }
+    }
+}
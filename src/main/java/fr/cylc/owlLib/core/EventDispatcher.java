@@ -0,0 +1,28 @@
+package fr.cylc.owlLib.core;
+
+/**
+ * Moteur de livraison asynchrone utilisé par OwlEventBus
+ * Chaque implémentation décide sur quels threads et dans quel ordre les listeners sont appelés
+ */
+interface EventDispatcher {
+
+    /**
+     * Transmet un événement aux listeners résolus par le bus
+     * @param event L'événement publié
+     * @param targets Les inscriptions concernées, tableau immuable partagé à ne pas modifier
+     * @param policy Comportement à adopter si la file concernée est pleine
+     * @return false si un événement a été abandonné (celui-ci ou un plus ancien)
+     */
+    boolean dispatch(Object event, Subscription[] targets, OwlEventBus.OverflowPolicy policy);
+
+    /**
+     * Vérifie qu'aucun événement n'est en attente ni en cours de livraison
+     * Valeur indicative, utilisée pour vider le bus avant l'arrêt
+     */
+    boolean isIdle();
+
+    /**
+     * Arrête le moteur et libère ses threads
+     */
+    void shutdown();
+}
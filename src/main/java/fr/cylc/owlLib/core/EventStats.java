@@ -0,0 +1,72 @@
+package fr.cylc.owlLib.core;
+
+import fr.cylc.owlLib.utils.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs et histogrammes d'un type d'événement ou d'un listener
+ * Alimentés uniquement lorsque l'instrumentation du bus est activée : les histogrammes (~500 compteurs chacun)
+ * ne sont alloués qu'au premier enregistrement, pour ne rien coûter aux types et listeners jamais mesurés.
+ */
+final class EventStats {
+
+    private static final LatencyHistogram EMPTY = new LatencyHistogram();
+
+    final String name;
+    final LongAdder published = new LongAdder();
+    final LongAdder delivered = new LongAdder();
+    final LongAdder failed = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    private volatile Histograms histograms;
+
+    EventStats(String name) {
+        this.name = name;
+    }
+
+    void recordQueueWait(long nanos) {
+        histograms().queueWait.record(nanos);
+    }
+
+    void recordExecution(long nanos) {
+        histograms().execution.record(nanos);
+    }
+
+    EventBusStatistics.Entry snapshot() {
+        Histograms current = histograms;
+        return new EventBusStatistics.Entry(name, published.sum(), delivered.sum(), failed.sum(), rejected.sum(),
+                (current != null ? current.queueWait : EMPTY).snapshot(),
+                (current != null ? current.execution : EMPTY).snapshot());
+    }
+
+    void reset() {
+        published.reset();
+        delivered.reset();
+        failed.reset();
+        rejected.reset();
+        Histograms current = histograms;
+        if (current != null) {
+            current.queueWait.reset();
+            current.execution.reset();
+        }
+    }
+
+    private Histograms histograms() {
+        Histograms current = histograms;
+        if (current == null) {
+            synchronized (this) {
+                current = histograms;
+                if (current == null) {
+                    current = new Histograms();
+                    histograms = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static final class Histograms {
+        private final LatencyHistogram queueWait = new LatencyHistogram();
+        private final LatencyHistogram execution = new LatencyHistogram();
+    }
+}
@@ -0,0 +1,164 @@
+package fr.cylc.owlLib.core;
+
+import org.bukkit.Bukkit;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moteur de livraison par défaut
+ * Chaque classe d'événement possède une file bornée, vidée par au plus "max-concurrent-events"
+ * tâches à la fois sur un pool de même taille. Lorsqu'une file est pleine, la politique de
+ * débordement du type d'événement s'applique ; avec BLOCK, le thread principal, les workers et
+ * les publications faites pendant l'arrêt livrent eux-mêmes au lieu d'attendre.
+ */
+final class ExecutorEventDispatcher implements EventDispatcher {
+
+    private static final long BLOCK_POLL_MILLIS = 50L;
+
+    private final ThreadPoolExecutor executor;
+    private final int maxConcurrent;
+    private final int capacity;
+    private volatile boolean halted;
+    private final ClassValue<Lane> lanes = new ClassValue<>() {
+        @Override
+        protected Lane computeValue(Class<?> type) {
+            return new Lane();
+        }
+    };
+
+    ExecutorEventDispatcher(int maxConcurrent, int capacity) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.capacity = Math.max(1, capacity);
+        this.executor = new ThreadPoolExecutor(this.maxConcurrent, this.maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new WorkerThreadFactory());
+    }
+
+    @Override
+    public boolean dispatch(Object event, Subscription[] targets, OwlEventBus.OverflowPolicy policy) {
+        Lane lane = lanes.get(TimedEvent.eventClassOf(event));
+        Delivery delivery = new Delivery(event, targets);
+        boolean accepted = true;
+
+        if (!lane.queue.offer(delivery)) {
+            switch (policy) {
+                case DROP_NEWEST:
+                    OwlEventBus.discarded(event);
+                    return false;
+                case DROP_OLDEST:
+                    while (!lane.queue.offer(delivery)) {
+                        Delivery dropped = lane.queue.poll();
+                        if (dropped != null) {
+                            OwlEventBus.discarded(dropped.event);
+                            accepted = false;
+                        }
+                    }
+                    break;
+                case CALLER_RUNS:
+                    delivery.deliver();
+                    return true;
+                case BLOCK:
+                default:
+                    // Un worker qui attendrait sa propre file pourrait bloquer tout le pool, le thread principal
+                    // bloquerait le tick, et un moteur arrêté ne videra plus la file
+                    if (halted || Thread.currentThread() instanceof WorkerThread || Bukkit.isPrimaryThread()) {
+                        delivery.deliver();
+                        return true;
+                    }
+                    try {
+                        while (!lane.queue.offer(delivery, BLOCK_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                            if (halted) {
+                                delivery.deliver();
+                                return true;
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                    break;
+            }
+        }
+
+        lane.signal();
+        return accepted;
+    }
+
+    @Override
+    public boolean isIdle() {
+        // Une file non vide a toujours une tâche de vidage en attente ou en cours
+        return executor.getActiveCount() == 0 && executor.getQueue().isEmpty();
+    }
+
+    @Override
+    public void shutdown() {
+        halted = true;
+        executor.shutdown();
+    }
+
+    /**
+     * File bornée d'une classe d'événement
+     */
+    private final class Lane implements Runnable {
+
+        private final BlockingQueue<Delivery> queue = new ArrayBlockingQueue<>(capacity);
+        private final AtomicInteger drainers = new AtomicInteger();
+
+        /**
+         * Démarre une tâche de vidage supplémentaire si la limite de concurrence le permet
+         */
+        private void signal() {
+            int running;
+            while ((running = drainers.get()) < maxConcurrent) {
+                if (queue.isEmpty()) {
+                    return;
+                }
+                if (drainers.compareAndSet(running, running + 1)) {
+                    try {
+                        executor.execute(this);
+                    } catch (RejectedExecutionException e) {
+                        drainers.decrementAndGet();
+                    }
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Delivery delivery;
+                while ((delivery = queue.poll()) != null) {
+                    delivery.deliver();
+                }
+            } finally {
+                drainers.decrementAndGet();
+            }
+            // Un événement a pu arriver alors que la limite de concurrence était atteinte
+            signal();
+        }
+    }
+
+    private static final class WorkerThread extends Thread {
+        private WorkerThread(Runnable runnable, String name) {
+            super(runnable, name);
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new WorkerThread(runnable, "OwlLib-EventWorker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
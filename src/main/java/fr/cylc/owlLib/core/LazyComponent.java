@@ -0,0 +1,94 @@
+package fr.cylc.owlLib.core;
+
+import fr.cylc.owlLib.api.IOwlComponent;
+import fr.cylc.owlLib.profiler.OwlProfiler;
+
+/**
+ * État d'activation d'un composant paresseux (IOwlComponent.isLazy) dans le registre
+ * Le composant est initialisé au premier accès via OwlComponentRegistry, une seule fois même
+ * si plusieurs threads y accèdent en même temps, puis peut être arrêté après une période d'inactivité.
+ *
+ * Un accès écrit lastAccess puis lit active ; la désactivation écrit active puis relit lastAccess.
+ * Les deux champs étant volatils, l'un des deux voit toujours l'écriture de l'autre : soit l'accès
+ * passe par le chemin verrouillé et attend la fin du shutdown() pour réinitialiser le composant,
+ * soit la désactivation constate l'accès et renonce. Un appelant ne reçoit donc jamais un composant en cours d'arrêt.
+ */
+final class LazyComponent {
+
+    final IOwlComponent component;
+    private volatile boolean active;
+    private volatile long lastAccess;
+
+    LazyComponent(IOwlComponent component) {
+        this.component = component;
+        this.active = component.isInitialized();
+        this.lastAccess = System.nanoTime();
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    /**
+     * Note un accès à un composant déjà actif (ex : renvoyé par componentsOf)
+     * @return false si le composant n'est pas, ou plus, actif
+     */
+    boolean touch() {
+        lastAccess = System.nanoTime();
+        return active;
+    }
+
+    /**
+     * Initialise le composant s'il ne l'est pas encore
+     * @return true si cet appel l'a activé
+     */
+    boolean activate() {
+        lastAccess = System.nanoTime();
+        if (active) {
+            return false;
+        }
+
+        synchronized (this) {
+            if (active) {
+                return false;
+            }
+            if (!component.isInitialized()) {
+                try (OwlProfiler.Span ignored = OwlProfiler.enter(component)) {
+                    component.initialize();
+                }
+            }
+            active = true;
+            return true;
+        }
+    }
+
+    /**
+     * Arrête le composant s'il n'a pas été utilisé depuis idleNanos
+     * @return true si cet appel l'a désactivé
+     */
+    boolean deactivateIfIdle(long idleNanos) {
+        if (!active || System.nanoTime() - lastAccess < idleNanos) {
+            return false;
+        }
+
+        synchronized (this) {
+            if (!active || System.nanoTime() - lastAccess < idleNanos) {
+                return false;
+            }
+            active = false;
+            // Un accès concurrent a pu lire active avant son écriture : il a alors déjà rafraîchi lastAccess
+            if (System.nanoTime() - lastAccess < idleNanos) {
+                active = true;
+                return false;
+            }
+            try (OwlProfiler.Span ignored = OwlProfiler.enter(component)) {
+                component.shutdown();
+            }
+            return true;
+        }
+    }
+}
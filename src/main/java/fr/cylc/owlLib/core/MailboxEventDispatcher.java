@@ -0,0 +1,162 @@
+package fr.cylc.owlLib.core;
+
+import org.bukkit.Bukkit;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moteur de livraison par boîtes aux lettres
+ * Chaque listener possède une file série vidée par un thread virtuel : les événements lui
+ * parviennent dans l'ordre de publication, un à la fois, tandis que les listeners
+ * différents s'exécutent en parallèle. Un listener bloqué sur une E/S n'immobilise que
+ * son propre thread virtuel. Chaque boîte est bornée et applique la politique de débordement
+ * du type d'événement ; avec BLOCK, le thread principal, un listener qui publie dans sa propre boîte
+ * et les publications faites pendant l'arrêt appellent le listener eux-mêmes au lieu d'attendre.
+ */
+final class MailboxEventDispatcher implements EventDispatcher {
+
+    private static final long BLOCK_PARK_NANOS = 50_000L;
+
+    private final ExecutorService executor;
+    private final int capacity;
+    private final AtomicInteger activeMailboxes = new AtomicInteger();
+    private volatile boolean halted;
+
+    MailboxEventDispatcher(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("OwlLib-Mailbox-", 0).factory());
+    }
+
+    @Override
+    public boolean dispatch(Object event, Subscription[] targets, OwlEventBus.OverflowPolicy policy) {
+        boolean accepted = true;
+        for (Subscription subscription : targets) {
+            accepted &= mailboxOf(subscription).post(event, policy);
+        }
+        return accepted;
+    }
+
+    @Override
+    public boolean isIdle() {
+        return activeMailboxes.get() == 0;
+    }
+
+    @Override
+    public void shutdown() {
+        halted = true;
+        executor.shutdown();
+    }
+
+    private Mailbox mailboxOf(Subscription subscription) {
+        Mailbox mailbox = subscription.mailbox;
+        if (mailbox == null) {
+            synchronized (subscription) {
+                mailbox = subscription.mailbox;
+                if (mailbox == null) {
+                    mailbox = new Mailbox(subscription);
+                    subscription.mailbox = mailbox;
+                }
+            }
+        }
+        return mailbox;
+    }
+
+    /**
+     * File série d'un listener, vidée par au plus un thread virtuel à la fois
+     */
+    final class Mailbox implements Runnable {
+
+        private final Subscription subscription;
+        private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile Thread drainer;
+
+        private Mailbox(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        boolean post(Object event, OwlEventBus.OverflowPolicy policy) {
+            if (halted) {
+                // Plus aucun thread virtuel ne videra la boîte
+                OwlEventBus.invokeListener(subscription, event);
+                return true;
+            }
+
+            boolean accepted = true;
+            while (size.incrementAndGet() > capacity) {
+                size.decrementAndGet();
+                switch (policy) {
+                    case DROP_NEWEST:
+                        OwlEventBus.discarded(event);
+                        return false;
+                    case DROP_OLDEST:
+                        Object dropped = queue.poll();
+                        if (dropped != null) {
+                            size.decrementAndGet();
+                            OwlEventBus.discarded(dropped);
+                            accepted = false;
+                        }
+                        break;
+                    case CALLER_RUNS:
+                        OwlEventBus.invokeListener(subscription, event);
+                        return true;
+                    case BLOCK:
+                    default:
+                        // Attendre sa propre boîte ou bloquer le tick ne se terminerait jamais ou trop tard
+                        if (halted || drainer == Thread.currentThread() || Bukkit.isPrimaryThread()) {
+                            OwlEventBus.invokeListener(subscription, event);
+                            return true;
+                        }
+                        LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                        break;
+                }
+            }
+
+            queue.offer(event);
+            reschedule();
+            return accepted;
+        }
+
+        @Override
+        public void run() {
+            drainer = Thread.currentThread();
+            boolean drained = false;
+            try {
+                do {
+                    Object event;
+                    while ((event = queue.poll()) != null) {
+                        size.decrementAndGet();
+                        OwlEventBus.invokeListener(subscription, event);
+                    }
+                    scheduled.set(false);
+                    // Un événement a pu arriver entre le dernier poll et la libération du drapeau
+                } while (!queue.isEmpty() && scheduled.compareAndSet(false, true));
+                drained = true;
+            } finally {
+                drainer = null;
+                activeMailboxes.decrementAndGet();
+                if (!drained) {
+                    // Une Error sortie d'un listener ne doit pas laisser la boîte marquée planifiée pour toujours
+                    scheduled.set(false);
+                    if (!queue.isEmpty()) {
+                        reschedule();
+                    }
+                }
+            }
+        }
+
+        private void reschedule() {
+            if (!halted && scheduled.compareAndSet(false, true)) {
+                activeMailboxes.incrementAndGet();
+                executor.execute(this);
+            }
+        }
+    }
+}
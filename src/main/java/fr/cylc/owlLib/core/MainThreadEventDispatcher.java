@@ -0,0 +1,171 @@
+package fr.cylc.owlLib.core;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moteur de livraison sur le thread principal
+ * Les événements destinés aux listeners ThreadMode.MAIN sont mis en file puis vidés une fois
+ * par tick par une unique tâche répétée. Le vidage s'arrête dès que le budget du tick est
+ * consommé ; le reste est reporté au tick suivant. La file est bornée ; une publication
+ * bloquante depuis le thread principal est livrée directement pour ne pas se bloquer elle-même,
+ * et une fois la tâche de vidage arrêtée, une publication depuis un autre thread sur une file pleine est abandonnée.
+ */
+final class MainThreadEventDispatcher implements EventDispatcher {
+
+    private static final long BLOCK_PARK_NANOS = 50_000L;
+
+    private final Queue<Delivery> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAdder carriedOverTotal = new LongAdder();
+    private final int capacity;
+    private final long tickBudgetNanos;
+    private final BukkitTask drainTask;
+    private volatile boolean halted;
+
+    // Uniquement manipulés par le thread principal
+    private Delivery current;
+    private int currentIndex;
+    private volatile int lastCarriedOver;
+
+    MainThreadEventDispatcher(Plugin plugin, double tickBudgetMillis, int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.tickBudgetNanos = (long) (Math.max(0.1, tickBudgetMillis) * 1_000_000L);
+        this.drainTask = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L);
+    }
+
+    @Override
+    public boolean dispatch(Object event, Subscription[] targets, OwlEventBus.OverflowPolicy policy) {
+        boolean accepted = true;
+        while (queueDepth.incrementAndGet() > capacity) {
+            queueDepth.decrementAndGet();
+            switch (policy) {
+                case DROP_NEWEST:
+                    OwlEventBus.discarded(event);
+                    return false;
+                case DROP_OLDEST:
+                    Delivery dropped = queue.poll();
+                    if (dropped == null) {
+                        // La profondeur compte la livraison en cours, déjà retirée de la file : il n'y a rien
+                        // d'autre à abandonner (capacité 1), et attendre ici bloquerait le thread principal
+                        OwlEventBus.discarded(event);
+                        return false;
+                    }
+                    queueDepth.decrementAndGet();
+                    OwlEventBus.discarded(dropped.event);
+                    accepted = false;
+                    break;
+                case BLOCK:
+                case CALLER_RUNS:
+                default:
+                    // Le thread principal ne peut pas attendre sa propre file, et un autre thread
+                    // ne peut pas exécuter un listener MAIN à sa place : il attend
+                    if (Bukkit.isPrimaryThread()) {
+                        Delivery.deliver(event, targets);
+                        return true;
+                    }
+                    if (halted) {
+                        // La tâche de vidage est arrêtée : plus rien ne libérera de place
+                        OwlEventBus.discarded(event);
+                        return false;
+                    }
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                    break;
+            }
+        }
+
+        queue.offer(new Delivery(event, targets));
+        return accepted;
+    }
+
+    /**
+     * Vide la file jusqu'à épuisement du budget du tick ; au moins un listener est appelé par tick
+     */
+    private void drain() {
+        long deadline = System.nanoTime() + tickBudgetNanos;
+        do {
+            if (!deliverNext()) {
+                lastCarriedOver = 0;
+                return;
+            }
+        } while (System.nanoTime() < deadline);
+
+        int carried = queueDepth.get();
+        lastCarriedOver = carried;
+        carriedOverTotal.add(carried);
+    }
+
+    /**
+     * Vide la file sans tenir compte du budget du tick, jusqu'à l'échéance donnée
+     * Utilisé à l'arrêt du serveur, lorsque la tâche répétée ne tournera plus ; à appeler sur le thread principal
+     * @return true si la file est vide
+     */
+    boolean drainUntil(long deadlineNanos) {
+        while (System.nanoTime() < deadlineNanos) {
+            if (!deliverNext()) {
+                return true;
+            }
+        }
+        return queueDepth.get() == 0;
+    }
+
+    /**
+     * Appelle le listener suivant de la file
+     * @return false si la file était vide
+     */
+    private boolean deliverNext() {
+        if (current == null) {
+            current = queue.poll();
+            currentIndex = 0;
+            if (current == null) {
+                return false;
+            }
+        }
+
+        OwlEventBus.invokeListener(current.targets[currentIndex++], current.event);
+        if (currentIndex == current.targets.length) {
+            current = null;
+            queueDepth.decrementAndGet();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isIdle() {
+        return queueDepth.get() == 0;
+    }
+
+    /**
+     * Nombre d'événements en attente de livraison sur le thread principal
+     */
+    int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Nombre d'événements reportés à la fin du dernier tick
+     */
+    int getLastCarriedOver() {
+        return lastCarriedOver;
+    }
+
+    /**
+     * Cumul des reports depuis le démarrage (un événement reporté sur trois ticks compte trois fois)
+     */
+    long getCarriedOverTotal() {
+        return carriedOverTotal.sum();
+    }
+
+    @Override
+    public void shutdown() {
+        halted = true;
+        drainTask.cancel();
+    }
+}
@@ -2,19 +2,55 @@ package fr.cylc.owlLib.core;
 
 import fr.cylc.owlLib.OwlLib;
 import fr.cylc.owlLib.api.IOwlComponent;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 
 /**
  * Registre des composants pour OwlLib
  * Implémente le pattern Registry
+ *
+ * Le registre est un instantané immuable remplacé à chaque enregistrement (copy-on-write) :
+ * les lectures sont sans verrou. L'instantané indexe chaque composant par toutes les classes
+ * et interfaces qu'il implémente, de sorte que componentsOf(Class) renvoie une liste précalculée.
+ *
+ * Les composants paresseux (IOwlComponent.isLazy) sont enregistrés sans être initialisés :
+ * le premier getComponent les active, et ils sont arrêtés après "settings.lazy-components.idle-timeout"
+ * secondes sans accès (0 par défaut : jamais), sauf si un composant actif en dépend. Tant qu'ils sont inactifs,
+ * ils n'apparaissent pas dans componentsOf. Seuls getComponent et componentsOf comptent comme des accès :
+ * avec un délai d'inactivité, un plugin garde la ComponentKey et rappelle getComponent plutôt que de garder l'instance.
  */
 public class OwlComponentRegistry {
 
-    private static Map<String, IOwlComponent> components;
+    private static final Object registrationLock = new Object();
+    private static final long TICKS_PER_SECOND = 20L;
+    private static final long MAX_SWEEP_TICKS = 60 * TICKS_PER_SECOND;
+    private static final LongAdder activations = new LongAdder();
+    private static final LongAdder deactivations = new LongAdder();
+
+    private static volatile Snapshot snapshot;
     private static Logger logger;
+    private static long shutdownTimeoutMillis;
+    private static int maxComponents;
+    private static long idleTimeoutNanos;
+    private static long activationTimeoutMillis;
+    private static BukkitTask sweepTask;
 
     private OwlComponentRegistry() {
         // Constructeur privé pour empêcher l'instanciation
@@ -24,77 +60,399 @@ public class OwlComponentRegistry {
      * Initialise le registre
      */
     public static void initialize() {
-        components = new HashMap<>();
         logger = OwlLib.getInstance().getLogger();
+        shutdownTimeoutMillis = OwlLib.getInstance().getConfigManager().getIntValue("settings.shutdown-timeout", 10000);
+        maxComponents = OwlLib.getInstance().getConfigManager().getIntValue("settings.max-components", 100);
+        snapshot = Snapshot.EMPTY;
+
+        activationTimeoutMillis = OwlLib.getInstance().getConfigManager().getIntValue("settings.default-timeout", 5000);
+        int idleTimeoutSeconds = OwlLib.getInstance().getConfigManager().getIntValue("settings.lazy-components.idle-timeout", 0);
+        idleTimeoutNanos = TimeUnit.SECONDS.toNanos(Math.max(0, idleTimeoutSeconds));
+        if (idleTimeoutSeconds > 0) {
+            long period = Math.min(MAX_SWEEP_TICKS, Math.max(TICKS_PER_SECOND, idleTimeoutSeconds * TICKS_PER_SECOND / 4L));
+            sweepTask = Bukkit.getScheduler().runTaskTimer(OwlLib.getInstance(), OwlComponentRegistry::deactivateIdle, period, period);
+        }
         logger.info("Component Registry initialized");
     }
 
     /**
      * Enregistre un nouveau composant
+     * @throws IllegalStateException si la limite "settings.max-components" est atteinte
      */
     public static void register(IOwlComponent component) {
-        if (components == null) {
-            throw new IllegalStateException("Component Registry not initialized");
+        String id = component.getId();
+        synchronized (registrationLock) {
+            Snapshot current = requireSnapshot();
+            if (current.byId.containsKey(id)) {
+                logger.warning("Component with id '" + id + "' already registered. Overwriting.");
+            } else if (maxComponents > 0 && current.byId.size() >= maxComponents) {
+                throw new IllegalStateException("Cannot register component '" + id + "': limit of "
+                        + maxComponents + " components reached (settings.max-components)");
+            }
+
+            Map<String, IOwlComponent> updated = new LinkedHashMap<>(current.byId);
+            updated.put(id, component);
+            Map<String, LazyComponent> lazy = new HashMap<>(current.lazy);
+            LazyComponent previous = lazy.remove(id);
+            if (component.isLazy()) {
+                lazy.put(id, previous != null && previous.component == component ? previous : new LazyComponent(component));
+            }
+            snapshot = new Snapshot(updated, lazy);
         }
+        logger.info("Component '" + id + "' registered successfully" + (component.isLazy() ? " (lazy)" : ""));
+    }
 
-        String id = component.getId();
-        if (components.containsKey(id)) {
-            logger.warning("Component with id '" + id + "' already registered. Overwriting.");
+    /**
+     * Désenregistre un composant sans l'arrêter
+     * @return Le composant retiré, ou null s'il n'était pas enregistré
+     */
+    public static IOwlComponent unregister(String id) {
+        synchronized (registrationLock) {
+            Snapshot current = requireSnapshot();
+            if (!current.byId.containsKey(id)) {
+                return null;
+            }
+
+            Map<String, IOwlComponent> updated = new LinkedHashMap<>(current.byId);
+            IOwlComponent removed = updated.remove(id);
+            Map<String, LazyComponent> lazy = new HashMap<>(current.lazy);
+            lazy.remove(id);
+            snapshot = new Snapshot(updated, lazy);
+            logger.info("Component '" + id + "' unregistered");
+            return removed;
         }
+    }
 
-        components.put(id, component);
-        logger.info("Component '" + id + "' registered successfully");
+    /**
+     * Désenregistre un composant s'il est encore celui enregistré sous son ID
+     * Sans effet si le registre est déjà arrêté, ou si un autre composant a pris cet ID entre-temps.
+     * @return true si le composant a été retiré
+     */
+    public static boolean unregister(IOwlComponent component) {
+        synchronized (registrationLock) {
+            Snapshot current = snapshot;
+            if (current == null || current.byId.get(component.getId()) != component) {
+                return false;
+            }
+            return unregister(component.getId()) != null;
+        }
     }
 
     /**
      * Récupère un composant par son ID
+     * Un composant paresseux est initialisé lors de ce premier accès, sur le thread appelant.
      */
     @SuppressWarnings("unchecked")
     public static <T extends IOwlComponent> T getComponent(String id) {
-        if (components == null) {
-            throw new IllegalStateException("Component Registry not initialized");
+        return (T) access(requireSnapshot(), id);
+    }
+
+    /**
+     * Récupère un composant par sa clé typée
+     * Un composant paresseux est initialisé lors de ce premier accès, sur le thread appelant.
+     * @return Le composant, ou null s'il n'est pas enregistré ou n'est pas du type de la clé
+     */
+    public static <T extends IOwlComponent> T getComponent(ComponentKey<T> key) {
+        IOwlComponent component = access(requireSnapshot(), key.getId());
+        return key.getType().isInstance(component) ? key.getType().cast(component) : null;
+    }
+
+    /**
+     * Vérifie si un composant paresseux est actuellement initialisé ; true pour un composant non paresseux
+     */
+    public static boolean isActive(String id) {
+        Snapshot current = requireSnapshot();
+        LazyComponent lazy = current.lazy.get(id);
+        return lazy != null ? lazy.isActive() : current.byId.containsKey(id);
+    }
+
+    private static IOwlComponent access(Snapshot current, String id) {
+        LazyComponent lazy = current.lazy.get(id);
+        if (lazy != null && !lazy.touch()) {
+            activate(current, lazy, new ArrayDeque<>());
+        }
+        return current.byId.get(id);
+    }
+
+    /**
+     * Active un composant paresseux après ses dépendances paresseuses, puis réindexe le registre
+     * Un composant qui requiert le thread principal y est initialisé ; un autre thread attend jusqu'à "settings.default-timeout".
+     * @param path Composants en cours d'activation, pour détecter un cycle de dépendances
+     * @throws IllegalStateException si les dépendances paresseuses forment un cycle, ou si l'activation
+     *                               sur le thread principal échoue ou dépasse son délai
+     */
+    private static void activate(Snapshot current, LazyComponent lazy, Deque<String> path) {
+        if (lazy.isActive()) {
+            lazy.activate();
+            return;
+        }
+
+        String id = lazy.component.getId();
+        if (path.contains(id)) {
+            List<String> cycle = new ArrayList<>(path);
+            Collections.reverse(cycle);
+            cycle.add(id);
+            throw new IllegalStateException("Lazy component dependency cycle: " + String.join(" -> ", cycle));
+        }
+        if (lazy.component.requiresMainThread() && !Bukkit.isPrimaryThread()) {
+            activateOnMainThread(current, lazy);
+            return;
+        }
+
+        path.push(id);
+        for (String dependency : lazy.component.getDependencies()) {
+            LazyComponent required = current.lazy.get(dependency);
+            if (required != null) {
+                activate(current, required, path);
+            }
+        }
+        path.pop();
+        if (lazy.activate()) {
+            activations.increment();
+            reindex();
+            logger.info("Component '" + lazy.component.getId() + "' activated on demand");
+        }
+    }
+
+    private static void activateOnMainThread(Snapshot current, LazyComponent lazy) {
+        Future<Void> activation = Bukkit.getScheduler().callSyncMethod(OwlLib.getInstance(), () -> {
+            activate(current, lazy, new ArrayDeque<>());
+            return null;
+        });
+        try {
+            activation.get(activationTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while activating component '" + lazy.component.getId() + "'", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to activate component '" + lazy.component.getId() + "'", e.getCause());
+        } catch (TimeoutException e) {
+            // L'activation reste planifiée : elle aura lieu au prochain tick libre
+            throw new IllegalStateException("Component '" + lazy.component.getId()
+                    + "' was not activated on the main thread within " + activationTimeoutMillis + "ms", e);
+        }
+    }
+
+    /**
+     * Arrête les composants paresseux inactifs depuis plus de "settings.lazy-components.idle-timeout"
+     * Exécuté périodiquement sur le thread principal.
+     */
+    private static void deactivateIdle() {
+        Snapshot current = snapshot;
+        if (current == null || current.lazy.isEmpty()) {
+            return;
+        }
+
+        boolean changed = false;
+        for (LazyComponent lazy : current.lazy.values()) {
+            if (!lazy.isActive() || isRequiredByActive(current, lazy.component.getId())) {
+                continue;
+            }
+            try {
+                if (lazy.deactivateIfIdle(idleTimeoutNanos)) {
+                    changed = true;
+                    deactivations.increment();
+                    logger.info("Component '" + lazy.component.getId() + "' deactivated after being idle");
+                }
+            } catch (Exception e) {
+                logger.warning("Error deactivating component '" + lazy.component.getId() + "': " + e.getMessage());
+            }
+        }
+        if (changed) {
+            reindex();
+        }
+    }
+
+    private static boolean isRequiredByActive(Snapshot current, String id) {
+        for (IOwlComponent component : current.active) {
+            if (component.getDependencies().contains(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void reindex() {
+        synchronized (registrationLock) {
+            Snapshot current = snapshot;
+            if (current != null) {
+                snapshot = new Snapshot(new LinkedHashMap<>(current.byId), current.lazy);
+            }
         }
+    }
 
-        return (T) components.get(id);
+    /**
+     * Renvoie tous les composants qui implémentent un type donné, dans leur ordre d'enregistrement
+     * La liste est immuable et précalculée : l'appel n'alloue rien, et ne la parcourt que si des composants paresseux sont enregistrés.
+     * Les composants paresseux n'y figurent que lorsqu'ils sont actifs ; les renvoyer compte comme un accès.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> componentsOf(Class<T> type) {
+        Snapshot current = requireSnapshot();
+        List<T> components = (List<T>) current.byType.getOrDefault(type, Collections.emptyList());
+        if (!current.lazy.isEmpty()) {
+            for (T component : components) {
+                LazyComponent lazy = current.lazy.get(((IOwlComponent) component).getId());
+                if (lazy != null) {
+                    lazy.touch();
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Renvoie tous les composants enregistrés, dans leur ordre d'enregistrement
+     */
+    public static List<IOwlComponent> getComponents() {
+        return requireSnapshot().all;
     }
 
     /**
      * Libère les ressources utilisées par le registre
+     * Les composants sont arrêtés dans l'ordre inverse de leurs dépendances, les indépendants en parallèle
      */
     public static void shutdown() {
-        if (components != null) {
-            // Arrête tous les composants enregistrés
-            for (IOwlComponent component : components.values()) {
-                try {
-                    component.shutdown();
-                } catch (Exception e) {
-                    logger.warning("Error shutting down component '" + component.getId() + "': " + e.getMessage());
-                }
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
+        if (snapshot != null) {
+            ShutdownReport report = new ShutdownReport();
+            ComponentGraph.shutdownAll(detachAll(),
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMillis), report);
+            report.getFailed().forEach((id, e) ->
+                    logger.warning("Error shutting down component '" + id + "': " + e.getMessage()));
+            if (!report.getTimedOut().isEmpty()) {
+                logger.warning("Components still stopping after " + shutdownTimeoutMillis + "ms: " + report.getTimedOut());
             }
 
-            components.clear();
-            components = null;
+            snapshot = null;
             logger.info("Component Registry shut down");
         }
     }
 
+    /**
+     * Retire tous les composants du registre sans les arrêter, pour un arrêt coordonné
+     */
+    static List<IOwlComponent> detachAll() {
+        synchronized (registrationLock) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return new ArrayList<>();
+            }
+            snapshot = Snapshot.EMPTY;
+            return new ArrayList<>(current.all);
+        }
+    }
+
     /**
      * Vérifie si un composant est enregistré
      */
     public static boolean hasComponent(String id) {
-        if (components == null) {
+        Snapshot current = snapshot;
+        if (current == null) {
             return false;
         }
-        return components.containsKey(id);
+        return current.byId.containsKey(id);
     }
 
     /**
      * Renvoie le nombre de composants enregistrés
      */
     public static int getComponentCount() {
-        if (components == null) {
+        Snapshot current = snapshot;
+        if (current == null) {
             return 0;
         }
-        return components.size();
+        return current.byId.size();
+    }
+
+    /**
+     * Renvoie le nombre de composants actifs : non paresseux, ou paresseux et initialisés
+     */
+    public static int getActiveComponentCount() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.active.size();
+    }
+
+    /**
+     * Nombre d'activations à la demande de composants paresseux depuis le démarrage
+     */
+    public static long getActivationCount() {
+        return activations.sum();
+    }
+
+    /**
+     * Nombre d'arrêts de composants paresseux inactifs depuis le démarrage
+     */
+    public static long getDeactivationCount() {
+        return deactivations.sum();
+    }
+
+    private static Snapshot requireSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("Component Registry not initialized");
+        }
+        return current;
+    }
+
+    /**
+     * Instantané immuable du registre et de son index par type
+     */
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), Collections.emptyMap());
+
+        private final Map<String, IOwlComponent> byId;
+        private final Map<String, LazyComponent> lazy;
+        private final List<IOwlComponent> all;
+        private final List<IOwlComponent> active;
+        private final Map<Class<?>, List<Object>> byType;
+
+        private Snapshot(Map<String, IOwlComponent> components, Map<String, LazyComponent> lazy) {
+            this.byId = Collections.unmodifiableMap(components);
+            this.lazy = Collections.unmodifiableMap(lazy);
+            this.all = List.copyOf(components.values());
+
+            List<IOwlComponent> activeComponents = new ArrayList<>(all.size());
+            for (Map.Entry<String, IOwlComponent> entry : components.entrySet()) {
+                LazyComponent slot = lazy.get(entry.getKey());
+                if (slot == null || slot.isActive()) {
+                    activeComponents.add(entry.getValue());
+                }
+            }
+            this.active = List.copyOf(activeComponents);
+
+            Map<Class<?>, List<Object>> index = new HashMap<>();
+            for (IOwlComponent component : active) {
+                for (Class<?> type : typesOf(component.getClass())) {
+                    index.computeIfAbsent(type, key -> new ArrayList<>()).add(component);
+                }
+            }
+            index.replaceAll((type, list) -> List.copyOf(list));
+            this.byType = index;
+        }
+
+        /**
+         * Classes et interfaces implémentées par un type, Object exclu
+         */
+        private static Set<Class<?>> typesOf(Class<?> type) {
+            Set<Class<?>> types = new HashSet<>();
+            Deque<Class<?>> pending = new ArrayDeque<>();
+            pending.add(type);
+            while (!pending.isEmpty()) {
+                Class<?> current = pending.poll();
+                if (current == Object.class || !types.add(current)) {
+                    continue;
+                }
+                Collections.addAll(pending, current.getInterfaces());
+                if (current.getSuperclass() != null) {
+                    pending.add(current.getSuperclass());
+                }
+            }
+            return types;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,26 +1,88 @@
 package fr.cylc.owlLib.core;
 
 import fr.cylc.owlLib.OwlLib;
+import fr.cylc.owlLib.api.IOwlCancellable;
+import fr.cylc.owlLib.api.IOwlCoalescable;
 import fr.cylc.owlLib.api.IOwlEventListener;
+import fr.cylc.owlLib.api.IOwlReplyListener;
+import fr.cylc.owlLib.profiler.OwlProfiler;
+import fr.cylc.owlLib.utils.ConfigManager;
+import fr.cylc.owlLib.utils.LoggerFactory;
+import fr.cylc.owlLib.utils.OwlRingBuffer;
+import org.bukkit.Bukkit;
 
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.logging.Level;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Logger;
 
 /**
  * Bus d'événements pour OwlLib
  * Implémente le pattern Observer avec un bus d'événements
+ *
+ * Les listeners sont stockés dans une table de dispatch immuable, remplacée atomiquement
+ * à chaque enregistrement ou désenregistrement (copy-on-write). La publication est donc
+ * une simple lecture sans verrou.
+ *
+ * La livraison asynchrone est confiée à un moteur choisi via "events.dispatch-mode" dans config.yml.
+ * Les listeners ThreadMode.MAIN sont livrés sur le thread principal, dans la limite de
+ * "events.main-thread.tick-budget-ms" par tick.
+ *
+ * Les files sont bornées ("events.queue-capacity") ; lorsqu'une file est pleine, la politique
+ * de débordement du type d'événement s'applique et les rejets sont comptabilisés.
+ *
+ * Les événements IOwlCoalescable sont regroupés par clé avant livraison : seul le plus récent
+ * de chaque clé est livré à la fin de la fenêtre "events.coalescing.window-ms".
+ *
+ * Les méthodes annotées @OwlSubscribe d'un objet quelconque peuvent être enregistrées en un seul
+ * appel via registerAll ; elles sont compilées en appels directs à l'enregistrement.
+ *
+ * Un listener peut aussi s'abonner à un motif de topic (ex : "world.nether.player.*") et ne
+ * recevoir que les événements publiés sur un topic correspondant. Les motifs sont compilés en
+ * arbre à chaque version de la table ; les listeners non concernés ne sont jamais planifiés.
+ *
+ * publishAsync et request renvoient un CompletableFuture complété lorsque tous les listeners
+ * ont terminé, ou en échec après "settings.default-timeout" millisecondes. Le thread principal ne doit
+ * jamais attendre ce future (join, get) : ses listeners ThreadMode.MAIN ne seraient livrés qu'après l'échéance.
+ *
+ * L'instrumentation ("events.metrics.enabled", ou setMetricsEnabled) mesure par type d'événement
+ * et par listener l'attente en file et le temps d'exécution ; getStatistics en donne un instantané.
+ * "events.log-all-events" trace un échantillon des publications ("events.log-sample-rate").
  */
 public class OwlEventBus {
 
-    private static Map<Class<?>, List<IOwlEventListener<?>>> listeners;
-    private static ExecutorService eventExecutor;
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+    private static final Comparator<Subscription> BY_PRIORITY = Comparator.comparing(subscription -> subscription.priority);
+    private static final Object registrationLock = new Object();
+    private static final int MAX_CACHED_TOPICS = 4096;
+    private static final long DRAIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final Map<Class<?>, EventStats> eventStats = new ConcurrentHashMap<>();
+
+    private static volatile DispatchTable dispatchTable;
+    private static DispatchMode dispatchMode;
+    private static long defaultTimeoutMillis;
+    private static long shutdownTimeoutMillis;
+    private static volatile boolean metricsEnabled;
+    private static int traceSampleRate;
     private static Logger logger;
+    private static LoggerFactory.OwlLogger failureLogger;
 
     private OwlEventBus() {
         // Constructeur privé pour empêcher l'instanciation
@@ -30,84 +92,918 @@ public class OwlEventBus {
      * Initialise le bus d'événements
      */
     public static void initialize() {
-        listeners = new HashMap<>();
-        eventExecutor = Executors.newFixedThreadPool(2);
         logger = OwlLib.getInstance().getLogger();
-        logger.info("Event Bus initialized");
+        failureLogger = LoggerFactory.getLogger("EventBus");
+        ConfigManager config = OwlLib.getInstance().getConfigManager();
+
+        int queueCapacity = config.getIntValue("events.queue-capacity", 1024);
+        OverflowPolicy defaultPolicy = OverflowPolicy.fromConfig(config.getStringValue("events.overflow-policy", "drop-oldest"));
+        boolean asyncProcessing = config.getBooleanValue("events.async-processing", true);
+        defaultTimeoutMillis = config.getIntValue("settings.default-timeout", 5000);
+        shutdownTimeoutMillis = config.getIntValue("settings.shutdown-timeout", 10000);
+        metricsEnabled = config.getBooleanValue("events.metrics.enabled", false);
+        traceSampleRate = config.getBooleanValue("events.log-all-events", false)
+                ? Math.max(1, config.getIntValue("events.log-sample-rate", 100))
+                : 0;
+
+        dispatchMode = DispatchMode.fromConfig(config.getStringValue("events.dispatch-mode", "executor"));
+        EventDispatcher dispatcher = asyncProcessing
+                ? createDispatcher(dispatchMode, config, queueCapacity)
+                : new DirectEventDispatcher();
+        MainThreadEventDispatcher mainThreadDispatcher = new MainThreadEventDispatcher(
+                OwlLib.getInstance(), config.getDoubleValue("events.main-thread.tick-budget-ms", 5.0), queueCapacity);
+
+        EventCoalescer coalescer = new EventCoalescer(
+                OwlLib.getInstance(), config.getIntValue("events.coalescing.window-ms", 50), logger);
+
+        eventStats.clear();
+        dispatchTable = new DispatchTable(new Engines(dispatcher, mainThreadDispatcher, coalescer, defaultPolicy),
+                Collections.emptyMap(), Collections.emptyMap());
+        logger.info("Event Bus initialized (dispatch mode: "
+                + (asyncProcessing ? dispatchMode.name().toLowerCase(Locale.ROOT) : "synchronous")
+                + ", overflow policy: " + defaultPolicy.name().toLowerCase(Locale.ROOT) + ")");
+    }
+
+    /**
+     * Crée le moteur de livraison correspondant au mode configuré
+     */
+    private static EventDispatcher createDispatcher(DispatchMode mode, ConfigManager config, int queueCapacity) {
+        switch (mode) {
+            case RING_BUFFER:
+                int consumers = config.getIntValue("events.ring-buffer.consumers", 0);
+                if (consumers <= 0) {
+                    consumers = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+                }
+                return new RingBufferEventDispatcher(
+                        config.getIntValue("events.ring-buffer.size", 4096),
+                        consumers,
+                        OwlRingBuffer.WaitStrategy.fromConfig(
+                                config.getStringValue("events.ring-buffer.wait-strategy", "parking"),
+                                OwlRingBuffer.WaitStrategy.PARKING),
+                        logger);
+            case MAILBOX:
+                return new MailboxEventDispatcher(queueCapacity);
+            case EXECUTOR:
+            default:
+                return new ExecutorEventDispatcher(config.getIntValue("settings.max-concurrent-events", 5), queueCapacity);
+        }
     }
 
     /**
      * Enregistre un listener pour un type d'événement
      */
     public static <T> void register(IOwlEventListener<T> listener) {
-        if (listeners == null) {
-            throw new IllegalStateException("Event Bus not initialized");
+        addSubscriptions(Collections.singletonList(new Subscription(listener, listener, null)));
+        logger.info("Listener registered for event type: " + listener.getEventType().getSimpleName());
+    }
+
+    /**
+     * Enregistre un listener pour les événements publiés sur les topics correspondant au motif
+     * @param topicPattern Motif de topic, "*" remplaçant un segment et "**" zéro ou plusieurs segments
+     */
+    public static <T> void register(String topicPattern, IOwlEventListener<T> listener) {
+        TopicTrie.validatePattern(topicPattern);
+        addSubscriptions(Collections.singletonList(new Subscription(listener, listener, topicPattern)));
+        logger.info("Listener registered for event type: " + listener.getEventType().getSimpleName()
+                + " on topic '" + topicPattern + "'");
+    }
+
+    /**
+     * Enregistre toutes les méthodes annotées @OwlSubscribe d'un objet
+     * Les méthodes non publiques ou issues d'un autre plugin sont appelées via un MethodHandle ;
+     * utiliser registerAll(subscriber, MethodHandles.lookup()) pour les compiler en appels directs.
+     * @return Le nombre de méthodes enregistrées
+     */
+    public static int registerAll(Object subscriber) {
+        return registerAll(subscriber, MethodHandles.lookup());
+    }
+
+    /**
+     * Enregistre toutes les méthodes annotées @OwlSubscribe d'un objet
+     * @param lookup Le lookup du plugin appelant (MethodHandles.lookup()), qui donne accès à ses méthodes privées
+     * @return Le nombre de méthodes enregistrées
+     */
+    public static int registerAll(Object subscriber, MethodHandles.Lookup lookup) {
+        List<Subscription> subscriptions = new ArrayList<>();
+        for (AnnotatedEventListener listener : AnnotatedEventListener.scan(subscriber, lookup)) {
+            subscriptions.add(new Subscription(listener, subscriber, listener.getTopic()));
+        }
+        if (!subscriptions.isEmpty()) {
+            addSubscriptions(subscriptions);
         }
+        logger.info(subscriptions.size() + " listener(s) registered from " + subscriber.getClass().getSimpleName());
+        return subscriptions.size();
+    }
 
-        Class<T> eventType = listener.getEventType();
-        listeners.computeIfAbsent(eventType, k -> new ArrayList<>()).add(listener);
-        logger.info("Listener registered for event type: " + eventType.getSimpleName());
+    /**
+     * Désenregistre toutes les méthodes @OwlSubscribe enregistrées pour un objet
+     */
+    public static void unregisterAll(Object subscriber) {
+        int removed = 0;
+        synchronized (registrationLock) {
+            DispatchTable table = requireTable();
+            Map<Class<?>, Subscription[]> updated = new HashMap<>();
+            for (Map.Entry<Class<?>, Subscription[]> entry : table.byDeclaredType.entrySet()) {
+                List<Subscription> kept = new ArrayList<>(entry.getValue().length);
+                for (Subscription subscription : entry.getValue()) {
+                    if (subscription.owner == subscriber) {
+                        removed++;
+                    } else {
+                        kept.add(subscription);
+                    }
+                }
+                if (!kept.isEmpty()) {
+                    updated.put(entry.getKey(), kept.toArray(NO_SUBSCRIPTIONS));
+                }
+            }
+            if (removed > 0) {
+                dispatchTable = table.withSubscriptions(updated);
+                forgetEventTypes(subscriber.getClass().getClassLoader());
+            }
+        }
+        if (removed > 0) {
+            logger.info(removed + " listener(s) unregistered from " + subscriber.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Ajoute des inscriptions en ne reconstruisant la table qu'une seule fois
+     */
+    private static void addSubscriptions(List<Subscription> subscriptions) {
+        synchronized (registrationLock) {
+            DispatchTable table = requireTable();
+            Map<Class<?>, Subscription[]> updated = new HashMap<>(table.byDeclaredType);
+            for (Subscription subscription : subscriptions) {
+                Subscription[] current = updated.getOrDefault(subscription.eventType, NO_SUBSCRIPTIONS);
+                Subscription[] extended = Arrays.copyOf(current, current.length + 1);
+                extended[current.length] = subscription;
+                updated.put(subscription.eventType, extended);
+            }
+            dispatchTable = table.withSubscriptions(updated);
+        }
     }
 
     /**
      * Désenregistre un listener
      */
     public static <T> void unregister(IOwlEventListener<T> listener) {
-        if (listeners == null) {
-            throw new IllegalStateException("Event Bus not initialized");
+        Class<T> eventType = listener.getEventType();
+        synchronized (registrationLock) {
+            DispatchTable table = requireTable();
+            Subscription[] current = table.byDeclaredType.get(eventType);
+            if (current == null) {
+                return;
+            }
+
+            int index = indexOf(current, listener);
+            if (index < 0) {
+                return;
+            }
+
+            Map<Class<?>, Subscription[]> updated = new HashMap<>(table.byDeclaredType);
+            if (current.length == 1) {
+                updated.remove(eventType);
+            } else {
+                Subscription[] reduced = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, reduced, 0, index);
+                System.arraycopy(current, index + 1, reduced, index, current.length - index - 1);
+                updated.put(eventType, reduced);
+            }
+            dispatchTable = table.withSubscriptions(updated);
+            forgetEventTypes(listener.getClass().getClassLoader());
         }
+        logger.info("Listener unregistered for event type: " + eventType.getSimpleName());
+    }
 
-        Class<T> eventType = listener.getEventType();
-        if (listeners.containsKey(eventType)) {
-            listeners.get(eventType).remove(listener);
-            logger.info("Listener unregistered for event type: " + eventType.getSimpleName());
+    /**
+     * Oublie les statistiques et politiques de débordement des types d'événements d'un class loader
+     * qui n'a plus aucun listener inscrit : leurs clés Class retiendraient le class loader d'un plugin désactivé
+     * Appelé sous registrationLock.
+     */
+    private static void forgetEventTypes(ClassLoader loader) {
+        if (loader == null || loader == OwlEventBus.class.getClassLoader()) {
+            return;
+        }
+        DispatchTable table = dispatchTable;
+        for (Subscription[] subscriptions : table.byDeclaredType.values()) {
+            for (Subscription subscription : subscriptions) {
+                if (subscription.owner.getClass().getClassLoader() == loader) {
+                    return;
+                }
+            }
+        }
+
+        eventStats.keySet().removeIf(type -> type.getClassLoader() == loader);
+        Map<Class<?>, OverflowPolicy> policies = new HashMap<>(table.overflowPolicies);
+        if (policies.keySet().removeIf(type -> type.getClassLoader() == loader)) {
+            dispatchTable = table.withOverflowPolicies(policies);
         }
     }
 
     /**
-     * Publie un événement à tous les listeners concernés
+     * Publie un événement à tous les listeners concernés, y compris ceux
+     * enregistrés sur une superclasse ou une interface de l'événement
+     * Un événement IOwlCoalescable est mis en attente et peut être remplacé par un plus récent
      */
-    @SuppressWarnings("unchecked")
     public static <T> void publish(T event) {
-        if (listeners == null) {
+        DispatchTable table = dispatchTable;
+        if (table == null) {
             throw new IllegalStateException("Event Bus not initialized");
         }
 
-        Class<?> eventType = event.getClass();
-        if (listeners.containsKey(eventType)) {
-            for (IOwlEventListener<?> listener : listeners.get(eventType)) {
-                publishToListener((IOwlEventListener<T>) listener, event);
-            }
+        Route route = table.routeFor(event.getClass());
+        trace(null, event, route);
+        if (route.coalescable && route.hasTargets() && table.engines.coalescer.offer(null, (IOwlCoalescable) event)) {
+            return;
         }
+        dispatch(table.engines, route, event);
     }
 
     /**
-     * Publie un événement de manière asynchrone
+     * Publie un événement sur un topic (ex : "world.nether.player.join")
+     * Il est livré aux listeners sans topic de son type et aux listeners dont le motif correspond
+     * @param topic Le topic de publication, ou null pour une publication sans topic
      */
-    private static <T> void publishToListener(IOwlEventListener<T> listener, T event) {
-        eventExecutor.submit(() -> {
-            try {
-                listener.onEvent(event);
-            } catch (Exception e) {
-                logger.log(Level.SEVERE, "Error in event listener", e);
+    public static <T> void publish(String topic, T event) {
+        if (topic == null) {
+            publish(event);
+            return;
+        }
+        DispatchTable table = dispatchTable;
+        if (table == null) {
+            throw new IllegalStateException("Event Bus not initialized");
+        }
+
+        Route route = table.routeFor(topic, event.getClass());
+        trace(topic, event, route);
+        if (route.coalescable && route.hasTargets() && table.engines.coalescer.offer(topic, (IOwlCoalescable) event)) {
+            return;
+        }
+        dispatch(table.engines, route, event);
+    }
+
+    /**
+     * Publie un événement et renvoie un future complété lorsque tous les listeners ont terminé
+     * Le future échoue avec une OwlException.ListenerFailureException regroupant les erreurs des
+     * listeners, ou avec une TimeoutException après "settings.default-timeout" millisecondes.
+     * Les événements suivis ne sont jamais regroupés.
+     * Depuis le thread principal, enchaîner sur le future (thenAccept...) plutôt que d'attendre : les listeners
+     * ThreadMode.MAIN sont livrés par une tâche du thread principal, qu'un join bloquerait jusqu'au délai.
+     */
+    public static <T> CompletableFuture<Void> publishAsync(T event) {
+        return publishAsync(null, event);
+    }
+
+    /**
+     * Variante de publishAsync pour un événement publié sur un topic
+     * @param topic Le topic de publication, ou null
+     */
+    public static <T> CompletableFuture<Void> publishAsync(String topic, T event) {
+        return publishTracked(topic, event, false, defaultTimeoutMillis).thenApply(replies -> null);
+    }
+
+    /**
+     * Publie une requête et rassemble les réponses des listeners IOwlReplyListener
+     * (ou des méthodes @OwlSubscribe qui renvoient une valeur), dans un délai de "settings.default-timeout"
+     * Comme pour publishAsync, le thread principal enchaîne sur le future au lieu de l'attendre.
+     * @param replyType Type des réponses attendues ; les autres réponses sont ignorées
+     */
+    public static <T, R> CompletableFuture<List<R>> request(T event, Class<R> replyType) {
+        return request(null, event, replyType, defaultTimeoutMillis);
+    }
+
+    /**
+     * Publie une requête sur un topic et rassemble les réponses dans le délai indiqué
+     * @param topic Le topic de publication, ou null
+     * @param timeoutMillis Délai maximal avant l'échec du future
+     */
+    public static <T, R> CompletableFuture<List<R>> request(String topic, T event, Class<R> replyType, long timeoutMillis) {
+        return publishTracked(topic, event, true, timeoutMillis).thenApply(replies -> {
+            List<R> typed = new ArrayList<>(replies.size());
+            for (Object reply : replies) {
+                if (replyType.isInstance(reply)) {
+                    typed.add(replyType.cast(reply));
+                }
             }
+            return typed;
         });
     }
 
+    private static CompletableFuture<List<Object>> publishTracked(String topic, Object event, boolean expectsReplies,
+                                                                  long timeoutMillis) {
+        DispatchTable table = dispatchTable;
+        if (table == null) {
+            throw new IllegalStateException("Event Bus not initialized");
+        }
+
+        Route route = topic == null ? table.routeFor(event.getClass()) : table.routeFor(topic, event.getClass());
+        trace(topic, event, route);
+        TrackedEvent tracked = new TrackedEvent(event, metricsEnabled ? System.nanoTime() : 0, route.stats,
+                route.async.length + route.main.length, expectsReplies);
+        if (route.hasTargets()) {
+            dispatch(table.engines, route, tracked);
+        }
+        return tracked.future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publie un événement sans passer par le regroupement ; utilisé par EventCoalescer
+     */
+    static void publishNow(String topic, Object event) {
+        DispatchTable table = dispatchTable;
+        if (table != null) {
+            Route route = topic == null ? table.routeFor(event.getClass()) : table.routeFor(topic, event.getClass());
+            dispatch(table.engines, route, event);
+        }
+    }
+
+    private static void dispatch(Engines engines, Route route, Object event) {
+        Object payload = event;
+        if (metricsEnabled) {
+            route.stats.published.increment();
+            if (!(event instanceof TimedEvent)) {
+                payload = new TimedEvent(event, System.nanoTime(), route.stats);
+            }
+        }
+
+        if (route.async.length > 0 && !engines.dispatcher.dispatch(payload, route.async, route.policy)) {
+            route.stats.rejected.increment();
+        }
+        if (route.main.length > 0 && !engines.mainThread.dispatch(payload, route.main, route.policy)) {
+            route.stats.rejected.increment();
+        }
+    }
+
+    /**
+     * Trace un échantillon des publications lorsque "events.log-all-events" est activé
+     */
+    private static void trace(String topic, Object event, Route route) {
+        int sampleRate = traceSampleRate;
+        if (sampleRate == 0 || ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return;
+        }
+        logger.info("[trace 1/" + sampleRate + "] " + event.getClass().getSimpleName()
+                + (topic != null ? " on '" + topic + "'" : "")
+                + " -> " + route.async.length + " async, " + route.main.length + " main-thread listener(s)");
+    }
+
+    /**
+     * Appelle un listener en isolant ses exceptions ; utilisé par tous les moteurs de livraison
+     * Un événement suivi (publishAsync, request) est déballé et le résultat du listener y est consigné.
+     */
+    @SuppressWarnings("unchecked")
+    static void invokeListener(Subscription subscription, Object event) {
+        TrackedEvent tracked = null;
+        EventStats typeStats = null;
+        long publishedAt = 0;
+        if (event instanceof TimedEvent) {
+            TimedEvent timed = (TimedEvent) event;
+            if (timed instanceof TrackedEvent) {
+                tracked = (TrackedEvent) timed;
+            }
+            typeStats = timed.stats;
+            publishedAt = timed.publishedAt;
+            event = timed.event;
+        }
+
+        if (subscription.ignoreCancelled && event instanceof IOwlCancellable && ((IOwlCancellable) event).isCancelled()) {
+            if (tracked != null) {
+                tracked.complete(null);
+            }
+            return;
+        }
+
+        boolean measured = metricsEnabled && typeStats != null;
+        long start = measured ? System.nanoTime() : 0;
+        if (measured && publishedAt != 0) {
+            typeStats.recordQueueWait(start - publishedAt);
+            subscription.stats.recordQueueWait(start - publishedAt);
+        }
+
+        boolean succeeded = false;
+        OwlProfiler.Span span = OwlProfiler.enter(subscription.profilerFrame);
+        try {
+            Object reply = null;
+            if (tracked != null && tracked.expectsReplies && subscription.listener instanceof IOwlReplyListener) {
+                reply = ((IOwlReplyListener<Object, Object>) subscription.listener).onRequest(event);
+            } else {
+                subscription.listener.onEvent(event);
+            }
+            succeeded = true;
+            if (tracked != null) {
+                tracked.complete(reply);
+            }
+        } catch (Throwable e) {
+            // Un listener qui échoue à chaque événement ne doit pas noyer le journal sous les traces
+            failureLogger.throttled(subscription.stats.name).error("Error in event listener " + subscription.stats.name, e);
+            // Une Error aussi termine le future : l'appelant ne doit pas attendre jusqu'au délai
+            if (tracked != null) {
+                tracked.fail(e);
+            }
+            if (e instanceof VirtualMachineError) {
+                throw (VirtualMachineError) e;
+            }
+        } finally {
+            span.close();
+            if (measured) {
+                long elapsed = System.nanoTime() - start;
+                typeStats.recordExecution(elapsed);
+                subscription.stats.recordExecution(elapsed);
+                (succeeded ? typeStats.delivered : typeStats.failed).increment();
+                (succeeded ? subscription.stats.delivered : subscription.stats.failed).increment();
+            }
+        }
+    }
+
+    /**
+     * Signale qu'un événement a été abandonné par une politique de débordement
+     */
+    static void discarded(Object event) {
+        if (event instanceof TrackedEvent) {
+            ((TrackedEvent) event).discard();
+        }
+    }
+
+    /**
+     * Définit la politique de débordement d'un type d'événement et de ses sous-types
+     * @param policy La politique, ou null pour revenir à "events.overflow-policy"
+     */
+    public static void setOverflowPolicy(Class<?> eventType, OverflowPolicy policy) {
+        synchronized (registrationLock) {
+            DispatchTable table = requireTable();
+            Map<Class<?>, OverflowPolicy> updated = new HashMap<>(table.overflowPolicies);
+            if (policy == null) {
+                updated.remove(eventType);
+            } else {
+                updated.put(eventType, policy);
+            }
+            dispatchTable = table.withOverflowPolicies(updated);
+        }
+    }
+
+    /**
+     * Renvoie la politique de débordement appliquée à une classe d'événement
+     */
+    public static OverflowPolicy getOverflowPolicy(Class<?> eventType) {
+        return requireTable().routeFor(eventType).policy;
+    }
+
+    /**
+     * Renvoie le nombre d'événements abandonnés pour une classe d'événement concrète
+     */
+    public static long getRejectedCount(Class<?> eventType) {
+        EventStats stats = eventStats.get(eventType);
+        return stats == null ? 0 : stats.rejected.sum();
+    }
+
+    /**
+     * Renvoie le nombre total d'événements abandonnés, par classe d'événement concrète
+     */
+    public static Map<Class<?>, Long> getRejectedCounts() {
+        Map<Class<?>, Long> counts = new HashMap<>();
+        eventStats.forEach((type, stats) -> counts.put(type, stats.rejected.sum()));
+        return counts;
+    }
+
+    /**
+     * Renvoie le nombre d'événements regroupés en attente de livraison
+     */
+    public static int getCoalescingPendingCount() {
+        DispatchTable table = dispatchTable;
+        return table == null ? 0 : table.engines.coalescer.getPendingCount();
+    }
+
+    /**
+     * Renvoie le nombre d'événements remplacés par un plus récent avant d'avoir été livrés
+     */
+    public static long getCoalescedCount() {
+        DispatchTable table = dispatchTable;
+        return table == null ? 0 : table.engines.coalescer.getCoalescedCount();
+    }
+
+    /**
+     * Vérifie si le bus est initialisé et accepte des publications
+     */
+    public static boolean isInitialized() {
+        return dispatchTable != null;
+    }
+
+    /**
+     * Active ou désactive l'instrumentation du bus
+     */
+    public static void setMetricsEnabled(boolean enabled) {
+        metricsEnabled = enabled;
+    }
+
+    /**
+     * Vérifie si l'instrumentation du bus est active
+     */
+    public static boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Remet à zéro les compteurs et histogrammes de tous les types d'événements et listeners
+     */
+    public static void resetStatistics() {
+        eventStats.values().forEach(EventStats::reset);
+        DispatchTable table = dispatchTable;
+        if (table != null) {
+            for (Subscription[] subscriptions : table.byDeclaredType.values()) {
+                for (Subscription subscription : subscriptions) {
+                    subscription.stats.reset();
+                }
+            }
+        }
+    }
+
+    /**
+     * Renvoie un instantané des statistiques par type d'événement et par listener
+     */
+    public static EventBusStatistics getStatistics() {
+        List<EventBusStatistics.Entry> types = new ArrayList<>();
+        for (EventStats stats : eventStats.values()) {
+            types.add(stats.snapshot());
+        }
+
+        List<EventBusStatistics.Entry> listeners = new ArrayList<>();
+        DispatchTable table = dispatchTable;
+        if (table != null) {
+            for (Subscription[] subscriptions : table.byDeclaredType.values()) {
+                for (Subscription subscription : subscriptions) {
+                    listeners.add(subscription.stats.snapshot());
+                }
+            }
+        }
+        return new EventBusStatistics(metricsEnabled, types, listeners, getMainThreadQueueDepth(), getCoalescedCount());
+    }
+
+    /**
+     * Renvoie le mode de livraison actif
+     */
+    public static DispatchMode getDispatchMode() {
+        return dispatchMode;
+    }
+
+    /**
+     * Renvoie le nombre d'événements en attente de livraison sur le thread principal
+     */
+    public static int getMainThreadQueueDepth() {
+        DispatchTable table = dispatchTable;
+        return table == null ? 0 : table.engines.mainThread.getQueueDepth();
+    }
+
+    /**
+     * Renvoie le nombre d'événements reportés au tick suivant lors du dernier vidage
+     */
+    public static int getMainThreadCarriedOver() {
+        DispatchTable table = dispatchTable;
+        return table == null ? 0 : table.engines.mainThread.getLastCarriedOver();
+    }
+
+    /**
+     * Renvoie le cumul des reports de livraison sur le thread principal depuis l'initialisation
+     */
+    public static long getMainThreadCarriedOverTotal() {
+        DispatchTable table = dispatchTable;
+        return table == null ? 0 : table.engines.mainThread.getCarriedOverTotal();
+    }
+
     /**
      * Libère les ressources utilisées par le bus d'événements
+     * Les événements en file sont livrés pendant au plus "settings.shutdown-timeout" millisecondes
      */
     public static void shutdown() {
-        if (eventExecutor != null) {
-            eventExecutor.shutdown();
-            eventExecutor = null;
+        shutdown(shutdownTimeoutMillis);
+    }
+
+    /**
+     * Vide le bus pendant au plus drainTimeoutMillis puis arrête les moteurs
+     */
+    static void shutdown(long drainTimeoutMillis) {
+        if (dispatchTable != null && !drain(drainTimeoutMillis)) {
+            logger.warning("Event Bus shut down with undelivered events after " + drainTimeoutMillis + "ms");
         }
 
-        if (listeners != null) {
-            listeners.clear();
-            listeners = null;
+        DispatchTable table;
+        synchronized (registrationLock) {
+            table = dispatchTable;
+            dispatchTable = null;
+        }
+
+        if (table != null) {
+            table.engines.shutdown();
         }
 
         logger.info("Event Bus shut down");
     }
+
+    /**
+     * Attend que tous les événements en file (regroupés, asynchrones et thread principal) soient livrés
+     * Le bus continue d'accepter les publications pendant l'attente, y compris celles des listeners.
+     * Appelé depuis le thread principal, vide lui-même la file du thread principal.
+     * @return true si le bus est vide avant l'échéance
+     */
+    public static boolean drain(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        boolean primaryThread = Bukkit.isPrimaryThread();
+        int idleChecks = 0;
+
+        while (true) {
+            DispatchTable table = dispatchTable;
+            if (table == null) {
+                return true;
+            }
+
+            Engines engines = table.engines;
+            if (engines.coalescer.getPendingCount() > 0) {
+                engines.coalescer.flush();
+            }
+            if (primaryThread) {
+                engines.mainThread.drainUntil(deadline);
+            }
+
+            boolean idle = engines.coalescer.getPendingCount() == 0 && engines.dispatcher.isIdle()
+                    && engines.mainThread.isIdle();
+            // Deux constats consécutifs : un listener peut publier entre deux vérifications
+            idleChecks = idle ? idleChecks + 1 : 0;
+            if (idleChecks >= 2) {
+                return true;
+            }
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(DRAIN_POLL_NANOS);
+        }
+    }
+
+    private static DispatchTable requireTable() {
+        DispatchTable table = dispatchTable;
+        if (table == null) {
+            throw new IllegalStateException("Event Bus not initialized");
+        }
+        return table;
+    }
+
+    private static int indexOf(Subscription[] subscriptions, IOwlEventListener<?> listener) {
+        for (int i = 0; i < subscriptions.length; i++) {
+            if (subscriptions[i].listener.equals(listener)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Modes de livraison asynchrone disponibles
+     */
+    public enum DispatchMode {
+        /**
+         * Une tâche par listener sur un pool de threads
+         */
+        EXECUTOR,
+        /**
+         * Ring buffer préalloué consommé par lots, sans allocation à la publication
+         */
+        RING_BUFFER,
+        /**
+         * Une file série par listener, vidée par un thread virtuel : ordre garanti par listener
+         */
+        MAILBOX;
+
+        /**
+         * Convertit une valeur de configuration (ex : "ring-buffer") en mode
+         */
+        public static DispatchMode fromConfig(String value) {
+            if (value == null) {
+                return EXECUTOR;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                return EXECUTOR;
+            }
+        }
+    }
+
+    /**
+     * Comportements possibles lorsqu'une file de livraison est pleine
+     */
+    public enum OverflowPolicy {
+        /**
+         * Le thread qui publie attend qu'une place se libère
+         * Le thread principal n'attend jamais : il appelle les listeners lui-même, comme après l'arrêt du bus.
+         */
+        BLOCK,
+        /**
+         * L'événement publié est abandonné
+         */
+        DROP_NEWEST,
+        /**
+         * L'événement le plus ancien de la file est abandonné au profit du nouveau
+         */
+        DROP_OLDEST,
+        /**
+         * Les listeners sont appelés directement sur le thread qui publie
+         */
+        CALLER_RUNS;
+
+        /**
+         * Convertit une valeur de configuration (ex : "drop-oldest") en politique
+         */
+        public static OverflowPolicy fromConfig(String value) {
+            if (value == null) {
+                return DROP_OLDEST;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                return DROP_OLDEST;
+            }
+        }
+    }
+
+    /**
+     * Moteurs de livraison partagés par toutes les versions de la table de dispatch
+     */
+    private static final class Engines {
+
+        private final EventDispatcher dispatcher;
+        private final MainThreadEventDispatcher mainThread;
+        private final EventCoalescer coalescer;
+        private final OverflowPolicy defaultPolicy;
+
+        private Engines(EventDispatcher dispatcher, MainThreadEventDispatcher mainThread, EventCoalescer coalescer,
+                        OverflowPolicy defaultPolicy) {
+            this.dispatcher = dispatcher;
+            this.mainThread = mainThread;
+            this.coalescer = coalescer;
+            this.defaultPolicy = defaultPolicy;
+        }
+
+        private void shutdown() {
+            coalescer.shutdown();
+            dispatcher.shutdown();
+            mainThread.shutdown();
+        }
+    }
+
+    /**
+     * Table de dispatch immuable
+     * Associe chaque type déclaré à ses inscriptions et met en cache, pour chaque classe
+     * concrète publiée, la liste résolue sur toute sa hiérarchie de types
+     */
+    private static final class DispatchTable {
+
+        private final Engines engines;
+        private final Map<Class<?>, Subscription[]> byDeclaredType;
+        private final Map<Class<?>, OverflowPolicy> overflowPolicies;
+        private final ClassValue<Route> byConcreteType;
+        private final TopicTrie topics;
+        private final ClassValue<Map<String, Route>> byTopic = new ClassValue<>() {
+            @Override
+            protected Map<String, Route> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+
+        private DispatchTable(Engines engines, Map<Class<?>, Subscription[]> byDeclaredType,
+                              Map<Class<?>, OverflowPolicy> overflowPolicies) {
+            this.engines = engines;
+            this.byDeclaredType = byDeclaredType;
+            this.overflowPolicies = overflowPolicies;
+            this.byConcreteType = new ClassValue<>() {
+                @Override
+                protected Route computeValue(Class<?> type) {
+                    return resolve(type);
+                }
+            };
+
+            List<Subscription> all = new ArrayList<>();
+            for (Subscription[] declared : byDeclaredType.values()) {
+                Collections.addAll(all, declared);
+            }
+            this.topics = new TopicTrie(all);
+        }
+
+        private DispatchTable withSubscriptions(Map<Class<?>, Subscription[]> updated) {
+            return new DispatchTable(engines, updated, overflowPolicies);
+        }
+
+        private DispatchTable withOverflowPolicies(Map<Class<?>, OverflowPolicy> updated) {
+            return new DispatchTable(engines, byDeclaredType, updated);
+        }
+
+        private Route routeFor(Class<?> concreteType) {
+            return byConcreteType.get(concreteType);
+        }
+
+        /**
+         * Renvoie la route d'un événement publié sur un topic, mise en cache par classe puis par topic
+         */
+        private Route routeFor(String topic, Class<?> concreteType) {
+            if (topics.isEmpty()) {
+                return routeFor(concreteType);
+            }
+
+            Map<String, Route> routes = byTopic.get(concreteType);
+            Route route = routes.get(topic);
+            if (route == null) {
+                // Les topics peuvent être très nombreux (un par joueur, par chunk...) : le cache de chaque classe
+                // est borné, et une seule entrée laisse sa place plutôt que de vider tout le cache
+                if (routes.size() >= MAX_CACHED_TOPICS) {
+                    Iterator<String> evicted = routes.keySet().iterator();
+                    if (evicted.hasNext()) {
+                        evicted.next();
+                        evicted.remove();
+                    }
+                }
+                route = resolve(concreteType, topics.match(topic));
+                routes.put(topic, route);
+            }
+            return route;
+        }
+
+        /**
+         * Concatène les inscriptions de chaque type de la hiérarchie, du plus spécifique au plus général,
+         * puis les répartit entre livraison asynchrone et thread principal, triées par priorité. La politique de
+         * débordement retenue est celle du type le plus spécifique qui en définit une.
+         */
+        private Route resolve(Class<?> concreteType) {
+            return resolve(concreteType, Collections.emptySet());
+        }
+
+        /**
+         * Variante pour un topic : ajoute aux inscriptions sans topic celles dont le motif correspond
+         * et dont le type d'événement accepte la classe publiée
+         */
+        private Route resolve(Class<?> concreteType, Set<Subscription> topicMatches) {
+            List<Subscription> async = new ArrayList<>();
+            List<Subscription> main = new ArrayList<>();
+            OverflowPolicy policy = null;
+            for (Class<?> type : hierarchyOf(concreteType)) {
+                if (policy == null) {
+                    policy = overflowPolicies.get(type);
+                }
+                Subscription[] declared = byDeclaredType.get(type);
+                if (declared == null) {
+                    continue;
+                }
+                for (Subscription subscription : declared) {
+                    if (subscription.topic == null || topicMatches.contains(subscription)) {
+                        (subscription.mainThread ? main : async).add(subscription);
+                    }
+                }
+            }
+            // Tri stable : à priorité égale, l'ordre d'enregistrement est conservé
+            async.sort(BY_PRIORITY);
+            main.sort(BY_PRIORITY);
+            return new Route(async.toArray(NO_SUBSCRIPTIONS), main.toArray(NO_SUBSCRIPTIONS),
+                    policy != null ? policy : engines.defaultPolicy,
+                    eventStats.computeIfAbsent(concreteType, type -> new EventStats(type.getName())),
+                    IOwlCoalescable.class.isAssignableFrom(concreteType));
+        }
+
+        private static Set<Class<?>> hierarchyOf(Class<?> concreteType) {
+            Set<Class<?>> hierarchy = new LinkedHashSet<>();
+            Deque<Class<?>> pending = new ArrayDeque<>();
+            pending.add(concreteType);
+            while (!pending.isEmpty()) {
+                Class<?> type = pending.poll();
+                if (!hierarchy.add(type)) {
+                    continue;
+                }
+                Collections.addAll(pending, type.getInterfaces());
+                if (type.getSuperclass() != null) {
+                    pending.add(type.getSuperclass());
+                }
+            }
+            return hierarchy;
+        }
+    }
+
+    /**
+     * Inscriptions résolues pour une classe d'événement concrète, par tier de livraison, et sa politique de débordement
+     */
+    private static final class Route {
+
+        private final Subscription[] async;
+        private final Subscription[] main;
+        private final OverflowPolicy policy;
+        private final EventStats stats;
+        private final boolean coalescable;
+
+        private Route(Subscription[] async, Subscription[] main, OverflowPolicy policy, EventStats stats,
+                      boolean coalescable) {
+            this.async = async;
+            this.main = main;
+            this.policy = policy;
+            this.stats = stats;
+            this.coalescable = coalescable;
+        }
+
+        private boolean hasTargets() {
+            return async.length > 0 || main.length > 0;
+        }
+    }
 }
@@ -2,10 +2,18 @@ package fr.cylc.owlLib.core;
 
 import fr.cylc.owlLib.OwlLib;
 import fr.cylc.owlLib.api.IOwlComponent;
+import fr.cylc.owlLib.api.IOwlComponentIndex;
 import fr.cylc.owlLib.api.IOwlConfigurable;
+import fr.cylc.owlLib.api.IOwlService;
 import fr.cylc.owlLib.utils.ConfigManager;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -17,6 +25,8 @@ public abstract class OwlPluginBase implements IOwlComponent, IOwlConfigurable {
     protected boolean initialized = false;
     protected final Logger logger;
     protected ConfigManager configManager;
+    private List<IOwlComponent> indexedComponents;
+    private final Map<Class<? extends IOwlService>, IOwlService> indexedServices = new LinkedHashMap<>();
 
     public OwlPluginBase() {
         this.logger = OwlLib.getInstance().getLogger();
@@ -29,12 +39,49 @@ public abstract class OwlPluginBase implements IOwlComponent, IOwlConfigurable {
     }
 
     /**
-     * Méthode à implémenter par les plugins concrets pour fournir leurs composants
+     * Fournit les composants du plugin
+     * Par défaut, les composants annotés @OwlComponent/@OwlService, créés une seule fois
+     * à partir de l'index généré à la compilation ; les plugins peuvent redéfinir cette méthode.
      */
-    public abstract List<IOwlComponent> getComponents();
+    public List<IOwlComponent> getComponents() {
+        if (indexedComponents == null) {
+            indexedComponents = loadIndexedComponents();
+        }
+        return indexedComponents;
+    }
+
+    /**
+     * Instancie les composants déclarés par les index générés (IOwlComponentIndex) du plugin
+     * Seuls les index chargés par le class loader du plugin sont pris en compte ; aucun scan du classpath.
+     * Les services enregistrés par les index sont retenus pour être désenregistrés par shutdown().
+     */
+    protected List<IOwlComponent> loadIndexedComponents() {
+        ClassLoader loader = getClass().getClassLoader();
+        List<IOwlComponent> components = new ArrayList<>();
+        ServiceLoader.load(IOwlComponentIndex.class, loader).stream()
+                .filter(provider -> provider.type().getClassLoader() == loader)
+                .forEach(provider -> {
+                    IOwlComponentIndex index = provider.get();
+                    components.addAll(index.wire());
+                    for (Class<? extends IOwlService> serviceType : index.getServiceTypes()) {
+                        IOwlService service = OwlServiceLocator.getServiceOrNull(serviceType);
+                        if (service != null) {
+                            indexedServices.put(serviceType, service);
+                        }
+                    }
+                });
+
+        if (components.isEmpty()) {
+            logger.warning("Plugin '" + getId() + "' has no @OwlComponent index and does not override getComponents()");
+        }
+        return Collections.unmodifiableList(components);
+    }
 
     /**
      * Template method pattern pour l'initialisation standard
+     * Les services enregistrés non encore initialisés sont démarrés, puis les composants selon leurs
+     * dépendances déclarées (IOwlComponent.getDependencies) ; seuls ceux qui acceptent de quitter
+     * le thread principal (requiresMainThread() false) démarrent en parallèle
      */
     @Override
     public void initialize() {
@@ -46,10 +93,14 @@ public abstract class OwlPluginBase implements IOwlComponent, IOwlConfigurable {
         try {
             loadConfig(null);  // Utilise le chemin par défaut
 
-            // Initialise et enregistre les composants
-            List<IOwlComponent> components = getComponents();
-            for (IOwlComponent component : components) {
-                component.initialize();
+            // Les services enregistrés d'abord : les composants peuvent en dépendre
+            long timeout = configManager.getIntValue("settings.default-timeout", 5000);
+            OwlServiceLocator.initializeServices(timeout);
+
+            // Initialise les composants selon leurs dépendances, puis les enregistre
+            ComponentGraph graph = ComponentGraph.of(getComponents());
+            graph.initializeAll(timeout);
+            for (IOwlComponent component : graph.getOrder()) {
                 OwlComponentRegistry.register(component);
             }
 
@@ -57,6 +108,44 @@ public abstract class OwlPluginBase implements IOwlComponent, IOwlConfigurable {
             logger.info("Plugin '" + getId() + "' initialized successfully");
         } catch (Exception e) {
             logger.severe("Failed to initialize plugin '" + getId() + "': " + e.getMessage());
+            stopStartedComponents();
+        }
+    }
+
+    /**
+     * Arrête les composants démarrés avant l'échec de l'initialisation : ils ne sont pas enregistrés,
+     * et shutdown() ne fait rien tant que le plugin n'est pas initialisé
+     */
+    private void stopStartedComponents() {
+        try {
+            List<IOwlComponent> started = new ArrayList<>();
+            for (IOwlComponent component : getComponents()) {
+                if (component.isInitialized()) {
+                    started.add(component);
+                }
+            }
+            if (!started.isEmpty()) {
+                stopComponents(started);
+            }
+            indexedServices.forEach(OwlServiceLocator::unregisterService);
+        } catch (Exception e) {
+            logger.severe("Error while stopping components of plugin '" + getId() + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Arrête des composants dans l'ordre inverse de leurs dépendances, sur le thread principal
+     * sauf ceux qui déclarent requiresMainThread() false
+     */
+    private void stopComponents(List<IOwlComponent> components) {
+        long timeout = configManager.getIntValue("settings.shutdown-timeout", 10000);
+        ShutdownReport report = new ShutdownReport();
+        ComponentGraph.shutdownAll(components, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout), report);
+        report.getFailed().forEach((id, e) ->
+                logger.warning("Error shutting down component '" + id + "': " + e.getMessage()));
+        if (!report.getTimedOut().isEmpty()) {
+            logger.warning("Components of plugin '" + getId() + "' still stopping after " + timeout + "ms: "
+                    + report.getTimedOut());
         }
     }
 
@@ -100,12 +189,15 @@ public abstract class OwlPluginBase implements IOwlComponent, IOwlConfigurable {
         }
 
         try {
-            // Arrête les composants dans l'ordre inverse de leur initialisation
-            List<IOwlComponent> components = getComponents();
-            for (int i = components.size() - 1; i >= 0; i--) {
-                IOwlComponent component = components.get(i);
-                component.shutdown();
+            stopComponents(getComponents());
+
+            // Retirés du registre : ShutdownCoordinator ne les arrêtera pas une seconde fois,
+            // et l'instantané ne retient plus le class loader du plugin
+            for (IOwlComponent component : getComponents()) {
+                OwlComponentRegistry.unregister(component);
             }
+            // De même pour les services @OwlService : un service arrêté ne doit plus être trouvé
+            indexedServices.forEach(OwlServiceLocator::unregisterService);
 
             initialized = false;
             logger.info("Plugin '" + getId() + "' shut down successfully");
@@ -4,19 +4,47 @@ import fr.cylc.owlLib.OwlLib;
 import fr.cylc.owlLib.api.IOwlService;
 import fr.cylc.owlLib.exceptions.OwlException;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 
 /**
  * Localisateur de services pour OwlLib
  * Implémente le pattern Service Locator
+ *
+ * Les lectures sont sans verrou et sans allocation (findService excepté, qui renvoie un Optional) ;
+ * les enregistrements sont sérialisés pour garder les index et les handles cohérents.
+ * Un service optionnel se teste avec getServiceOrNull/findService plutôt qu'en attrapant l'exception,
+ * et le code appelé fréquemment résout une fois un ServiceHandle via handle(Class).
  */
 public class OwlServiceLocator {
 
-    private static Map<Class<?>, IOwlService> services;
-    private static Map<String, IOwlService> servicesByName;
+    private static final Object registrationLock = new Object();
+    // Attachés à la classe du type de service : un plugin déchargé n'est pas retenu par ses handles
+    private static final ClassValue<ServiceHandle<?>> handles = new ClassValue<>() {
+        @Override
+        protected ServiceHandle<?> computeValue(Class<?> type) {
+            ServiceHandle<?> created = new ServiceHandle<>(type.asSubclass(IOwlService.class));
+            Map<Class<?>, IOwlService> current = services;
+            if (current != null) {
+                created.set(current.get(type));
+            }
+            return created;
+        }
+    };
+    private static final LongAdder misses = new LongAdder();
+
+    private static volatile Map<Class<?>, IOwlService> services;
+    private static volatile Map<String, IOwlService> servicesByName;
     private static Logger logger;
+    private static long shutdownTimeoutMillis;
 
     private OwlServiceLocator() {
         // Constructeur privé pour empêcher l'instanciation
@@ -26,91 +54,230 @@ public class OwlServiceLocator {
      * Initialise le localisateur de services
      */
     public static void initialize() {
-        services = new HashMap<>();
-        servicesByName = new HashMap<>();
         logger = OwlLib.getInstance().getLogger();
+        shutdownTimeoutMillis = OwlLib.getInstance().getConfigManager().getIntValue("settings.shutdown-timeout", 10000);
+        servicesByName = new ConcurrentHashMap<>();
+        services = new ConcurrentHashMap<>();
         logger.info("Service Locator initialized");
     }
 
     /**
      * Enregistre un service par son type
+     * Les handles déjà résolus pour ce type pointent immédiatement vers la nouvelle implémentation.
      */
     public static <T extends IOwlService> void registerService(Class<T> serviceType, T serviceImpl) {
-        if (services == null) {
-            throw new IllegalStateException("Service Locator not initialized");
-        }
+        Map<Class<?>, IOwlService> current = requireServices();
 
-        services.put(serviceType, serviceImpl);
-        servicesByName.put(serviceImpl.getId(), serviceImpl);
+        synchronized (registrationLock) {
+            IOwlService previous = current.put(serviceType, serviceImpl);
+            if (previous != null && previous != serviceImpl) {
+                servicesByName.remove(previous.getId(), previous);
+            }
+            servicesByName.put(serviceImpl.getId(), serviceImpl);
+
+            handles.get(serviceType).set(serviceImpl);
+        }
         logger.info("Service '" + serviceImpl.getServiceName() + "' registered");
     }
 
     /**
      * Récupère un service par son type
+     * @throws OwlException.ServiceNotFoundException si aucun service n'est enregistré pour ce type
      */
-    @SuppressWarnings("unchecked")
     public static <T extends IOwlService> T getService(Class<T> serviceType) throws OwlException {
-        if (services == null) {
-            throw new IllegalStateException("Service Locator not initialized");
-        }
-
-        T service = (T) services.get(serviceType);
+        T service = getServiceOrNull(serviceType);
         if (service == null) {
-            throw new OwlException("Service of type " + serviceType.getName() + " not found");
+            misses.increment();
+            throw new OwlException.ServiceNotFoundException(serviceType.getName());
         }
         return service;
     }
 
+    /**
+     * Récupère un service par son type, ou null s'il n'est pas enregistré
+     */
+    public static <T extends IOwlService> T getServiceOrNull(Class<T> serviceType) {
+        return serviceType.cast(requireServices().get(serviceType));
+    }
+
+    /**
+     * Récupère un service par son type, s'il est enregistré
+     */
+    public static <T extends IOwlService> Optional<T> findService(Class<T> serviceType) {
+        return Optional.ofNullable(getServiceOrNull(serviceType));
+    }
+
     /**
      * Récupère un service par son ID
+     * @throws OwlException.ServiceNotFoundException si aucun service ne porte cet ID
      */
     @SuppressWarnings("unchecked")
     public static <T extends IOwlService> T getServiceById(String id) throws OwlException {
-        if (servicesByName == null) {
+        T service = (T) getServiceByIdOrNull(id);
+        if (service == null) {
+            misses.increment();
+            throw new OwlException.ServiceNotFoundException(id);
+        }
+        return service;
+    }
+
+    /**
+     * Récupère un service par son ID, ou null si aucun service ne porte cet ID
+     */
+    public static IOwlService getServiceByIdOrNull(String id) {
+        Map<String, IOwlService> current = servicesByName;
+        if (current == null) {
             throw new IllegalStateException("Service Locator not initialized");
         }
+        return current.get(id);
+    }
 
-        T service = (T) servicesByName.get(id);
-        if (service == null) {
-            throw new OwlException("Service with ID '" + id + "' not found");
+    /**
+     * Récupère un service par son ID sans exiger que le localisateur soit initialisé
+     */
+    static IOwlService lookupById(String id) {
+        Map<String, IOwlService> current = servicesByName;
+        return current == null ? null : current.get(id);
+    }
+
+    /**
+     * Initialise en parallèle les services enregistrés qui ne le sont pas encore,
+     * dans l'ordre imposé par leurs dépendances (voir ComponentGraph)
+     * @param timeoutMillis Délai maximal d'initialisation de chaque service
+     */
+    public static void initializeServices(long timeoutMillis) throws OwlException {
+        List<IOwlService> pending = new ArrayList<>();
+        for (IOwlService service : requireServices().values()) {
+            if (!service.isInitialized() && !pending.contains(service)) {
+                pending.add(service);
+            }
         }
-        return service;
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        ComponentGraph.of(pending).initializeAll(timeoutMillis);
+        logger.info(pending.size() + " service(s) initialized");
+    }
+
+    /**
+     * Renvoie les services enregistrés ; vide si le localisateur n'est pas initialisé
+     */
+    public static Collection<IOwlService> getServices() {
+        Map<Class<?>, IOwlService> current = services;
+        return current == null ? Collections.emptyList() : Collections.unmodifiableCollection(current.values());
+    }
+
+    /**
+     * Nombre de getService/getServiceById qui n'ont trouvé aucun service depuis le démarrage
+     */
+    public static long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Renvoie la référence stable vers le service d'un type donné
+     * Le handle peut être obtenu avant l'enregistrement du service ; il reste valide
+     * tant que le plugin est chargé et suit les enregistrements successifs.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends IOwlService> ServiceHandle<T> handle(Class<T> serviceType) {
+        // Un enregistrement concurrent met à jour le handle retenu par ClassValue : get() renvoie toujours
+        // la même instance, y compris si deux threads la créent en même temps
+        return (ServiceHandle<T>) handles.get(serviceType);
     }
 
     /**
      * Désenregistre un service
      */
     public static <T extends IOwlService> void unregisterService(Class<T> serviceType) {
-        if (services == null) {
-            throw new IllegalStateException("Service Locator not initialized");
+        Map<Class<?>, IOwlService> current = requireServices();
+
+        IOwlService service;
+        synchronized (registrationLock) {
+            service = current.remove(serviceType);
+            if (service != null) {
+                servicesByName.remove(service.getId(), service);
+            }
+
+            handles.get(serviceType).set(null);
         }
 
-        IOwlService service = services.remove(serviceType);
         if (service != null) {
-            servicesByName.remove(service.getId());
             logger.info("Service '" + service.getServiceName() + "' unregistered");
         }
     }
 
+    /**
+     * Désenregistre un service s'il est toujours l'implémentation enregistrée pour ce type
+     * Sans effet si le localisateur est déjà arrêté, ou si un autre service a pris sa place.
+     * @return true si le service a été retiré
+     */
+    public static boolean unregisterService(Class<? extends IOwlService> serviceType, IOwlService serviceImpl) {
+        synchronized (registrationLock) {
+            Map<Class<?>, IOwlService> current = services;
+            if (current == null || !current.remove(serviceType, serviceImpl)) {
+                return false;
+            }
+            servicesByName.remove(serviceImpl.getId(), serviceImpl);
+
+            handles.get(serviceType).set(null);
+        }
+        logger.info("Service '" + serviceImpl.getServiceName() + "' unregistered");
+        return true;
+    }
+
     /**
      * Libère les ressources utilisées par le localisateur de services
+     * Les services sont arrêtés dans l'ordre inverse de leurs dépendances, les indépendants en parallèle
      */
     public static void shutdown() {
-        if (services != null) {
-            // Arrête tous les services enregistrés
-            for (IOwlService service : services.values()) {
-                try {
-                    service.shutdown();
-                } catch (Exception e) {
-                    logger.warning("Error shutting down service '" + service.getServiceName() + "': " + e.getMessage());
-                }
-            }
+        if (services == null) {
+            return;
+        }
 
-            services.clear();
+        ShutdownReport report = new ShutdownReport();
+        ComponentGraph.shutdownAll(detachAll(),
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMillis), report);
+        report.getFailed().forEach((id, e) ->
+                logger.warning("Error shutting down service '" + id + "': " + e.getMessage()));
+        if (!report.getTimedOut().isEmpty()) {
+            logger.warning("Services still stopping after " + shutdownTimeoutMillis + "ms: " + report.getTimedOut());
+        }
+
+        synchronized (registrationLock) {
             services = null;
-            servicesByName.clear();
             servicesByName = null;
-            logger.info("Service Locator shut down");
         }
+        logger.info("Service Locator shut down");
+    }
+
+    /**
+     * Retire tous les services du localisateur sans les arrêter, pour un arrêt coordonné
+     * Les handles sont vidés immédiatement.
+     */
+    static List<IOwlService> detachAll() {
+        synchronized (registrationLock) {
+            Map<Class<?>, IOwlService> current = services;
+            if (current == null) {
+                return new ArrayList<>();
+            }
+            List<IOwlService> detached = new ArrayList<>(current.values());
+            // Seuls les handles des types enregistrés peuvent pointer vers un service
+            for (Class<?> serviceType : current.keySet()) {
+                handles.get(serviceType).set(null);
+            }
+            current.clear();
+            servicesByName.clear();
+            return detached;
+        }
+    }
+
+    private static Map<Class<?>, IOwlService> requireServices() {
+        Map<Class<?>, IOwlService> current = services;
+        if (current == null) {
+            throw new IllegalStateException("Service Locator not initialized");
+        }
+        return current;
     }
 }
@@ -0,0 +1,122 @@
+package fr.cylc.owlLib.core;
+
+import fr.cylc.owlLib.utils.OwlRingBuffer;
+import org.bukkit.Bukkit;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Moteur de livraison basé sur un ring buffer préalloué
+ * Publier un événement ne fait qu'écrire dans un slot existant ; les consommateurs
+ * traitent les slots par lots et appellent tous les listeners de l'événement.
+ * Le buffer est partagé par tous les types d'événements ; DROP_OLDEST y est traité comme DROP_NEWEST.
+ * Avec BLOCK, le thread principal et les publications faites après l'arrêt livrent eux-mêmes au lieu d'attendre.
+ */
+final class RingBufferEventDispatcher implements EventDispatcher {
+
+    private static final long BLOCK_PARK_NANOS = 50_000L;
+
+    private final OwlRingBuffer<EventSlot> ringBuffer;
+    private volatile boolean halted;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    RingBufferEventDispatcher(int capacity, int consumers, OwlRingBuffer.WaitStrategy waitStrategy, Logger logger) {
+        this.ringBuffer = new OwlRingBuffer<>(capacity, consumers, EventSlot::new, waitStrategy);
+
+        OwlRingBuffer.BatchHandler<EventSlot>[] handlers = new OwlRingBuffer.BatchHandler[consumers];
+        for (int i = 0; i < consumers; i++) {
+            handlers[i] = new OwlRingBuffer.BatchHandler<>() {
+                @Override
+                public void onEvent(EventSlot slot, long sequence, boolean endOfBatch) {
+                    Object event = slot.event;
+                    Subscription[] targets = slot.targets;
+                    slot.event = null;
+                    slot.targets = null;
+                    Delivery.deliver(event, targets);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    logger.log(Level.SEVERE, "Error in event ring buffer consumer", throwable);
+                }
+            };
+        }
+        ringBuffer.start(new ConsumerThreadFactory(), handlers);
+    }
+
+    @Override
+    public boolean dispatch(Object event, Subscription[] targets, OwlEventBus.OverflowPolicy policy) {
+        long sequence;
+        switch (policy) {
+            case DROP_NEWEST:
+            case DROP_OLDEST:
+                // Les slots publiés ne peuvent pas être repris : le plus récent est abandonné
+                sequence = ringBuffer.tryNext();
+                if (sequence < 0) {
+                    OwlEventBus.discarded(event);
+                    return false;
+                }
+                break;
+            case CALLER_RUNS:
+                sequence = ringBuffer.tryNext();
+                if (sequence < 0) {
+                    Delivery.deliver(event, targets);
+                    return true;
+                }
+                break;
+            case BLOCK:
+            default:
+                sequence = ringBuffer.tryNext();
+                while (sequence < 0) {
+                    // Le tick ne doit pas attendre, et des consommateurs arrêtés ne libéreront plus de slot
+                    if (halted || Bukkit.isPrimaryThread()) {
+                        Delivery.deliver(event, targets);
+                        return true;
+                    }
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                    sequence = ringBuffer.tryNext();
+                }
+                break;
+        }
+
+        EventSlot slot = ringBuffer.get(sequence);
+        slot.event = event;
+        slot.targets = targets;
+        ringBuffer.publish(sequence);
+        return true;
+    }
+
+    @Override
+    public boolean isIdle() {
+        return ringBuffer.getPendingCount() == 0;
+    }
+
+    @Override
+    public void shutdown() {
+        halted = true;
+        ringBuffer.halt();
+    }
+
+    /**
+     * Slot réutilisable du ring buffer
+     */
+    private static final class EventSlot {
+        private Object event;
+        private Subscription[] targets;
+    }
+
+    private static final class ConsumerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "OwlLib-EventRing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
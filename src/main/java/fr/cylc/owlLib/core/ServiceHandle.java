@@ -0,0 +1,64 @@
+package fr.cylc.owlLib.core;
+
+import fr.cylc.owlLib.api.IOwlService;
+import fr.cylc.owlLib.exceptions.OwlException;
+
+import java.util.Optional;
+
+/**
+ * Référence stable vers un service, obtenue via OwlServiceLocator.handle(Class)
+ * Le handle est résolu une seule fois puis suit automatiquement les enregistrements
+ * et désenregistrements du service : get() n'est qu'une lecture volatile.
+ */
+public final class ServiceHandle<T extends IOwlService> {
+
+    private final Class<T> serviceType;
+    private volatile T service;
+
+    ServiceHandle(Class<T> serviceType) {
+        this.serviceType = serviceType;
+    }
+
+    public Class<T> getServiceType() {
+        return serviceType;
+    }
+
+    /**
+     * Renvoie le service actuellement enregistré, ou null s'il n'y en a pas
+     */
+    public T get() {
+        return service;
+    }
+
+    /**
+     * Renvoie le service actuellement enregistré, s'il y en a un
+     */
+    public Optional<T> find() {
+        return Optional.ofNullable(service);
+    }
+
+    /**
+     * Renvoie le service actuellement enregistré
+     * @throws OwlException.ServiceNotFoundException si aucun service n'est enregistré pour ce type
+     */
+    public T require() throws OwlException.ServiceNotFoundException {
+        T current = service;
+        if (current == null) {
+            throw new OwlException.ServiceNotFoundException(serviceType.getName());
+        }
+        return current;
+    }
+
+    public boolean isAvailable() {
+        return service != null;
+    }
+
+    void set(IOwlService service) {
+        this.service = serviceType.cast(service);
+    }
+
+    @Override
+    public String toString() {
+        return "ServiceHandle[" + serviceType.getName() + (service != null ? " -> " + service.getServiceName() : "") + "]";
+    }
+}
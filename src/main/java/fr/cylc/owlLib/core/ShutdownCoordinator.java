@@ -0,0 +1,58 @@
+package fr.cylc.owlLib.core;
+
+import fr.cylc.owlLib.OwlLib;
+import fr.cylc.owlLib.api.IOwlComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Arrêt coordonné des services core d'OwlLib
+ * 1. Vide le bus d'événements : les événements déjà publiés sont livrés
+ * 2. Arrête composants et services ensemble, dans l'ordre inverse de leurs dépendances
+ * 3. Vide à nouveau le bus (événements publiés pendant l'arrêt, ex : dernières sauvegardes) puis le ferme
+ * L'ensemble est borné par une seule échéance ; ce qui la dépasse est listé dans le bilan.
+ */
+public final class ShutdownCoordinator {
+
+    private ShutdownCoordinator() {
+        // Constructeur privé pour empêcher l'instanciation
+    }
+
+    /**
+     * Arrête le bus, le registre et le localisateur de services
+     * @param timeoutMillis Durée maximale de l'arrêt complet
+     */
+    public static ShutdownReport shutdownAll(long timeoutMillis) {
+        Logger logger = OwlLib.getInstance().getLogger();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        ShutdownReport report = new ShutdownReport();
+
+        boolean drained = OwlEventBus.drain(remainingMillis(deadline));
+
+        List<IOwlComponent> components = new ArrayList<>(OwlComponentRegistry.detachAll());
+        components.addAll(OwlServiceLocator.detachAll());
+        ComponentGraph.shutdownAll(components, deadline, report);
+
+        drained &= OwlEventBus.drain(remainingMillis(deadline));
+        report.eventsDrained(drained);
+        OwlEventBus.shutdown(0);
+        OwlComponentRegistry.shutdown();
+        OwlServiceLocator.shutdown();
+
+        report.elapsed(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (report.isClean()) {
+            logger.info("Shutdown complete: " + report);
+        } else {
+            logger.warning("Shutdown incomplete: " + report);
+        }
+        return report;
+    }
+
+    private static long remainingMillis(long deadlineNanos) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+}
@@ -0,0 +1,99 @@
+package fr.cylc.owlLib.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bilan d'un arrêt coordonné (voir ShutdownCoordinator)
+ * Indique si le bus d'événements a été vidé à temps et quels composants se sont arrêtés,
+ * ont échoué ou n'ont pas terminé avant l'échéance.
+ */
+public final class ShutdownReport {
+
+    private final List<String> stopped = new ArrayList<>();
+    private final Map<String, Throwable> failed = new LinkedHashMap<>();
+    private final List<String> timedOut = new ArrayList<>();
+    private boolean eventsDrained = true;
+    private long elapsedMillis;
+
+    ShutdownReport() {
+    }
+
+    synchronized void stopped(String id) {
+        stopped.add(id);
+    }
+
+    synchronized void failed(String id, Throwable error) {
+        failed.put(id, error);
+    }
+
+    synchronized void timedOut(String id) {
+        timedOut.add(id);
+    }
+
+    synchronized void eventsDrained(boolean drained) {
+        eventsDrained = drained;
+    }
+
+    synchronized void elapsed(long millis) {
+        elapsedMillis = millis;
+    }
+
+    /**
+     * Vérifie que tout s'est arrêté sans erreur ni dépassement de délai
+     */
+    public synchronized boolean isClean() {
+        return eventsDrained && failed.isEmpty() && timedOut.isEmpty();
+    }
+
+    /**
+     * Vérifie que tous les événements en file ont été livrés avant l'arrêt des composants
+     */
+    public synchronized boolean isEventsDrained() {
+        return eventsDrained;
+    }
+
+    /**
+     * IDs des composants arrêtés, dans l'ordre où ils ont terminé
+     */
+    public synchronized List<String> getStopped() {
+        return Collections.unmodifiableList(new ArrayList<>(stopped));
+    }
+
+    /**
+     * Composants dont shutdown() a levé une exception
+     */
+    public synchronized Map<String, Throwable> getFailed() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(failed));
+    }
+
+    /**
+     * Composants qui ne se sont pas arrêtés avant l'échéance, ou qui attendaient l'un d'eux
+     */
+    public synchronized List<String> getTimedOut() {
+        return Collections.unmodifiableList(new ArrayList<>(timedOut));
+    }
+
+    public synchronized long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder()
+                .append(stopped.size()).append(" component(s) stopped in ").append(elapsedMillis).append("ms");
+        if (!eventsDrained) {
+            builder.append(", event bus not drained");
+        }
+        if (!failed.isEmpty()) {
+            builder.append(", failed: ").append(failed.keySet());
+        }
+        if (!timedOut.isEmpty()) {
+            builder.append(", timed out: ").append(timedOut);
+        }
+        return builder.toString();
+    }
+}
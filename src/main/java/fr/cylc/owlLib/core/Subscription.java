@@ -0,0 +1,43 @@
+package fr.cylc.owlLib.core;
+
+import fr.cylc.owlLib.api.IOwlEventListener;
+import fr.cylc.owlLib.profiler.OwlProfiler;
+
+/**
+ * Inscription d'un listener dans le bus d'événements
+ * Porte l'état propre à chaque listener (boîte aux lettres, options, etc.) pour que la
+ * publication n'ait jamais à le rechercher dans une map
+ */
+final class Subscription {
+
+    final IOwlEventListener<Object> listener;
+    final Object owner;
+    final String topic;
+    final Class<?> eventType;
+    final boolean mainThread;
+    final IOwlEventListener.Priority priority;
+    final boolean ignoreCancelled;
+    final EventStats stats;
+    final OwlProfiler.Frame profilerFrame;
+    volatile MailboxEventDispatcher.Mailbox mailbox;
+
+    /**
+     * @param owner L'objet qui a demandé l'inscription : le listener lui-même, ou l'objet
+     *              portant les méthodes @OwlSubscribe
+     * @param topic Le motif de topic écouté, ou null pour recevoir tous les événements du type
+     */
+    @SuppressWarnings("unchecked")
+    Subscription(IOwlEventListener<?> listener, Object owner, String topic) {
+        this.listener = (IOwlEventListener<Object>) listener;
+        this.owner = owner;
+        this.topic = topic;
+        this.eventType = listener.getEventType();
+        this.mainThread = listener.getThreadMode() == IOwlEventListener.ThreadMode.MAIN;
+        this.priority = listener.getPriority();
+        this.ignoreCancelled = listener.isIgnoringCancelled();
+        this.stats = new EventStats(listener instanceof AnnotatedEventListener
+                ? listener.toString()
+                : listener.getClass().getName() + (topic != null ? " @" + topic : ""));
+        this.profilerFrame = OwlProfiler.frame(OwlProfiler.Kind.LISTENER, stats.name);
+    }
+}
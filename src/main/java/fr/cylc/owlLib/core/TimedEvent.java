@@ -0,0 +1,29 @@
+package fr.cylc.owlLib.core;
+
+/**
+ * Enveloppe d'un événement en transit dans les moteurs de livraison
+ * Utilisée lorsque l'instrumentation est active pour mesurer l'attente en file ;
+ * OwlEventBus.invokeListener la déballe avant d'appeler le listener.
+ */
+class TimedEvent {
+
+    final Object event;
+    final long publishedAt;
+    final EventStats stats;
+
+    /**
+     * @param publishedAt Instant de publication (System.nanoTime), ou 0 s'il n'est pas mesuré
+     */
+    TimedEvent(Object event, long publishedAt, EventStats stats) {
+        this.event = event;
+        this.publishedAt = publishedAt;
+        this.stats = stats;
+    }
+
+    /**
+     * Renvoie la classe de l'événement, déballé s'il est enveloppé
+     */
+    static Class<?> eventClassOf(Object event) {
+        return event instanceof TimedEvent ? ((TimedEvent) event).event.getClass() : event.getClass();
+    }
+}
@@ -0,0 +1,114 @@
+package fr.cylc.owlLib.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Arbre des motifs de topics, construit une fois par version de la table de dispatch
+ * Un topic est une suite de segments séparés par des points (ex : "world.nether.player.join").
+ * Dans un motif, "*" correspond à exactement un segment et "**" à zéro ou plusieurs segments.
+ */
+final class TopicTrie {
+
+    static final String SINGLE_WILDCARD = "*";
+    static final String MULTI_WILDCARD = "**";
+
+    private final Node root = new Node();
+    private boolean empty = true;
+
+    TopicTrie(Collection<Subscription> subscriptions) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.topic != null) {
+                insert(subscription);
+                empty = false;
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Renvoie les inscriptions dont le motif correspond au topic, sans doublon
+     */
+    Set<Subscription> match(String topic) {
+        Set<Subscription> matched = new LinkedHashSet<>();
+        if (!empty) {
+            match(root, split(topic), 0, matched);
+        }
+        return matched;
+    }
+
+    /**
+     * Vérifie qu'un motif de topic est bien formé
+     */
+    static String validatePattern(String pattern) {
+        for (String segment : split(pattern)) {
+            if (segment.isEmpty()) {
+                throw new IllegalArgumentException("Invalid topic pattern '" + pattern + "': empty segment");
+            }
+        }
+        return pattern;
+    }
+
+    private void insert(Subscription subscription) {
+        Node node = root;
+        for (String segment : split(subscription.topic)) {
+            switch (segment) {
+                case SINGLE_WILDCARD:
+                    if (node.singleWildcard == null) {
+                        node.singleWildcard = new Node();
+                    }
+                    node = node.singleWildcard;
+                    break;
+                case MULTI_WILDCARD:
+                    if (node.multiWildcard == null) {
+                        node.multiWildcard = new Node();
+                    }
+                    node = node.multiWildcard;
+                    break;
+                default:
+                    node = node.children.computeIfAbsent(segment, key -> new Node());
+                    break;
+            }
+        }
+        node.terminal.add(subscription);
+    }
+
+    private static void match(Node node, String[] segments, int index, Set<Subscription> matched) {
+        if (node.multiWildcard != null) {
+            for (int next = index; next <= segments.length; next++) {
+                match(node.multiWildcard, segments, next, matched);
+            }
+        }
+        if (index == segments.length) {
+            matched.addAll(node.terminal);
+            return;
+        }
+
+        Node child = node.children.get(segments[index]);
+        if (child != null) {
+            match(child, segments, index + 1, matched);
+        }
+        if (node.singleWildcard != null) {
+            match(node.singleWildcard, segments, index + 1, matched);
+        }
+    }
+
+    private static String[] split(String topic) {
+        return topic.split("\\.", -1);
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final List<Subscription> terminal = new ArrayList<>();
+        private Node singleWildcard;
+        private Node multiWildcard;
+    }
+}
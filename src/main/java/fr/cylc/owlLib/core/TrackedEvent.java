@@ -0,0 +1,74 @@
+package fr.cylc.owlLib.core;
+
+import fr.cylc.owlLib.exceptions.OwlException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Enveloppe d'un événement publié via publishAsync ou request
+ * Elle circule dans les moteurs de livraison à la place de l'événement ; OwlEventBus.invokeListener
+ * la déballe et y consigne le résultat de chaque listener. Le future est complété lorsque tous
+ * les listeners ont terminé.
+ */
+final class TrackedEvent extends TimedEvent {
+
+    final boolean expectsReplies;
+    final CompletableFuture<List<Object>> future = new CompletableFuture<>();
+    private final AtomicInteger remaining;
+    private final Queue<Object> replies = new ConcurrentLinkedQueue<>();
+    private final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+
+    TrackedEvent(Object event, long publishedAt, EventStats stats, int listeners, boolean expectsReplies) {
+        super(event, publishedAt, stats);
+        this.expectsReplies = expectsReplies;
+        this.remaining = new AtomicInteger(listeners);
+        if (listeners == 0) {
+            future.complete(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Consigne la fin d'un listener
+     * @param reply Sa réponse, ou null
+     */
+    void complete(Object reply) {
+        if (reply != null) {
+            replies.add(reply);
+        }
+        countDown();
+    }
+
+    /**
+     * Consigne l'échec d'un listener
+     */
+    void fail(Throwable failure) {
+        failures.add(failure);
+        countDown();
+    }
+
+    /**
+     * L'événement a été abandonné par une politique de débordement : certains listeners ne seront jamais appelés
+     */
+    void discard() {
+        future.completeExceptionally(new RejectedExecutionException(
+                "Event " + event.getClass().getName() + " was dropped by its overflow policy"));
+    }
+
+    private void countDown() {
+        if (remaining.decrementAndGet() != 0) {
+            return;
+        }
+
+        if (failures.isEmpty()) {
+            future.complete(new ArrayList<>(replies));
+        } else {
+            future.completeExceptionally(new OwlException.ListenerFailureException(event.getClass(), failures));
+        }
+    }
+}
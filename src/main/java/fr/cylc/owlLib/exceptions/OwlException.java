@@ -1,5 +1,8 @@
 package fr.cylc.owlLib.exceptions;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Exception personnalisée pour OwlLib
  */
@@ -13,6 +16,13 @@ public class OwlException extends Exception {
         super(message, cause);
     }
 
+    /**
+     * @param writableStackTrace false pour ne pas capturer la pile d'appels (exceptions levées sur un chemin fréquent)
+     */
+    protected OwlException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+
     /**
      * Exception levée lorsqu'un composant n'est pas trouvé
      */
@@ -24,10 +34,11 @@ public class OwlException extends Exception {
 
     /**
      * Exception levée lorsqu'un service n'est pas trouvé
+     * Sans pile d'appels : une recherche manquée est un cas normal pour un service optionnel
      */
     public static class ServiceNotFoundException extends OwlException {
         public ServiceNotFoundException(String serviceId) {
-            super("Service not found: " + serviceId);
+            super("Service not found: " + serviceId, false);
         }
     }
 
@@ -48,4 +59,26 @@ public class OwlException extends Exception {
             super("Component not initialized: " + componentId);
         }
     }
+
+    /**
+     * Exception levée lorsque les dépendances déclarées par des composants forment un cycle
+     */
+    public static class DependencyCycleException extends OwlException {
+        public DependencyCycleException(List<String> cycle) {
+            super("Dependency cycle detected: " + String.join(" -> ", cycle));
+        }
+    }
+
+    /**
+     * Exception levée lorsqu'un ou plusieurs listeners ont échoué lors d'une publication suivie
+     * Chaque échec est attaché en exception supprimée
+     */
+    public static class ListenerFailureException extends OwlException {
+        public ListenerFailureException(Class<?> eventType, Collection<Throwable> failures) {
+            super(failures.size() + " listener(s) failed for event " + eventType.getName());
+            for (Throwable failure : failures) {
+                addSuppressed(failure);
+            }
+        }
+    }
 }
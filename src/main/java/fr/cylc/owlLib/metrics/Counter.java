@@ -0,0 +1,42 @@
+package fr.cylc.owlLib.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteur monotone
+ * Incrémenter est sans verrou (LongAdder) et ne fait qu'une lecture volatile lorsque les métriques sont désactivées.
+ */
+public final class Counter extends Metric {
+
+    private final LongAdder value = new LongAdder();
+
+    Counter(OwlMetrics owner, String name, String help, String labels) {
+        super(owner, name, help, labels);
+    }
+
+    public void increment() {
+        if (owner.enabled) {
+            value.increment();
+        }
+    }
+
+    public void add(long amount) {
+        if (owner.enabled) {
+            value.add(amount);
+        }
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    @Override
+    MetricSample.Type getType() {
+        return MetricSample.Type.COUNTER;
+    }
+
+    @Override
+    MetricSample sample() {
+        return MetricSample.of(name, help, MetricSample.Type.COUNTER, labels, value.sum(), null, 1);
+    }
+}
@@ -0,0 +1,26 @@
+package fr.cylc.owlLib.metrics;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Jauge : valeur lue à chaque collecte, sans coût entre deux collectes
+ */
+final class Gauge extends Metric {
+
+    private final DoubleSupplier supplier;
+
+    Gauge(OwlMetrics owner, String name, String help, String labels, DoubleSupplier supplier) {
+        super(owner, name, help, labels);
+        this.supplier = supplier;
+    }
+
+    @Override
+    MetricSample.Type getType() {
+        return MetricSample.Type.GAUGE;
+    }
+
+    @Override
+    MetricSample sample() {
+        return MetricSample.of(name, help, MetricSample.Type.GAUGE, labels, supplier.getAsDouble(), null, 1);
+    }
+}
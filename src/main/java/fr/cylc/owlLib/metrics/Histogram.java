@@ -0,0 +1,36 @@
+package fr.cylc.owlLib.metrics;
+
+import fr.cylc.owlLib.utils.LatencyHistogram;
+
+/**
+ * Distribution de valeurs entières positives (tailles, nombres d'éléments...)
+ * Repose sur le même histogramme log-linéaire que Timer : erreur relative inférieure à 12,5 %.
+ */
+public final class Histogram extends Metric {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    Histogram(OwlMetrics owner, String name, String help, String labels) {
+        super(owner, name, help, labels);
+    }
+
+    public void record(long value) {
+        if (owner.enabled) {
+            histogram.record(value);
+        }
+    }
+
+    public LatencyHistogram.Snapshot snapshot() {
+        return histogram.snapshot();
+    }
+
+    @Override
+    MetricSample.Type getType() {
+        return MetricSample.Type.SUMMARY;
+    }
+
+    @Override
+    MetricSample sample() {
+        return MetricSample.of(name, help, MetricSample.Type.SUMMARY, labels, 0, histogram.snapshot(), 1);
+    }
+}
@@ -0,0 +1,68 @@
+package fr.cylc.owlLib.metrics;
+
+import java.util.regex.Pattern;
+
+/**
+ * Base des métriques enregistrées dans OwlMetrics
+ * Chaque métrique connaît son registre pour ne rien enregistrer lorsque les métriques sont désactivées.
+ */
+abstract class Metric {
+
+    private static final Pattern NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+
+    final OwlMetrics owner;
+    final String name;
+    final String help;
+    final String labels;
+
+    Metric(OwlMetrics owner, String name, String help, String labels) {
+        this.owner = owner;
+        this.name = name;
+        this.help = help;
+        this.labels = labels;
+    }
+
+    abstract MetricSample.Type getType();
+
+    abstract MetricSample sample();
+
+    static String checkName(String name) {
+        if (name == null || !NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid metric name: " + name);
+        }
+        return name;
+    }
+
+    /**
+     * Met en forme des paires clé, valeur en étiquettes Prometheus : {clé="valeur",...}
+     */
+    static String formatLabels(String... labels) {
+        if (labels.length == 0) {
+            return "";
+        }
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Metric labels must be key, value pairs");
+        }
+
+        StringBuilder out = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(checkName(labels[i])).append("=\"");
+            String value = labels[i + 1] == null ? "" : labels[i + 1];
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                if (c == '\\' || c == '"') {
+                    out.append('\\').append(c);
+                } else if (c == '\n') {
+                    out.append("\\n");
+                } else {
+                    out.append(c);
+                }
+            }
+            out.append('"');
+        }
+        return out.append('}').toString();
+    }
+}
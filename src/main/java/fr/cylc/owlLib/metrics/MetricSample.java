@@ -0,0 +1,107 @@
+package fr.cylc.owlLib.metrics;
+
+import fr.cylc.owlLib.utils.LatencyHistogram;
+
+/**
+ * Valeur d'une métrique au moment d'une collecte
+ * Les compteurs et jauges portent une valeur, les timers et histogrammes une distribution.
+ */
+public final class MetricSample {
+
+    private final String name;
+    private final String help;
+    private final Type type;
+    private final String labels;
+    private final double value;
+    private final LatencyHistogram.Snapshot distribution;
+    private final double scale;
+
+    private MetricSample(String name, String help, Type type, String labels, double value,
+                         LatencyHistogram.Snapshot distribution, double scale) {
+        this.name = name;
+        this.help = help;
+        this.type = type;
+        this.labels = labels;
+        this.value = value;
+        this.distribution = distribution;
+        this.scale = scale;
+    }
+
+    /**
+     * @param labels Paires clé, valeur (ex : "type", "PlayerJoinEvent")
+     */
+    public static MetricSample counter(String name, String help, double value, String... labels) {
+        return new MetricSample(Metric.checkName(name), help, Type.COUNTER, Metric.formatLabels(labels), value, null, 1);
+    }
+
+    public static MetricSample gauge(String name, String help, double value, String... labels) {
+        return new MetricSample(Metric.checkName(name), help, Type.GAUGE, Metric.formatLabels(labels), value, null, 1);
+    }
+
+    /**
+     * Distribution de durées en nanosecondes, exportée en secondes
+     */
+    public static MetricSample timer(String name, String help, LatencyHistogram.Snapshot distribution, String... labels) {
+        return new MetricSample(Metric.checkName(name), help, Type.SUMMARY, Metric.formatLabels(labels), 0,
+                distribution, Timer.NANOS_TO_SECONDS);
+    }
+
+    /**
+     * Distribution de valeurs sans unité
+     */
+    public static MetricSample histogram(String name, String help, LatencyHistogram.Snapshot distribution, String... labels) {
+        return new MetricSample(Metric.checkName(name), help, Type.SUMMARY, Metric.formatLabels(labels), 0, distribution, 1);
+    }
+
+    static MetricSample of(String name, String help, Type type, String labels, double value,
+                           LatencyHistogram.Snapshot distribution, double scale) {
+        return new MetricSample(name, help, type, labels, value, distribution, scale);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getHelp() {
+        return help;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Étiquettes au format Prometheus (ex : {type="PlayerJoinEvent"}), ou chaîne vide
+     */
+    public String getLabels() {
+        return labels;
+    }
+
+    /**
+     * Valeur d'un compteur ou d'une jauge
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Distribution d'un timer ou d'un histogramme, null pour un compteur ou une jauge
+     */
+    public LatencyHistogram.Snapshot getDistribution() {
+        return distribution;
+    }
+
+    /**
+     * Facteur appliqué aux valeurs de la distribution à l'export (1e-9 pour un timer)
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Types de métriques, au sens de Prometheus
+     */
+    public enum Type {
+        COUNTER, GAUGE, SUMMARY
+    }
+}
@@ -0,0 +1,102 @@
+package fr.cylc.owlLib.metrics;
+
+import fr.cylc.owlLib.OwlLib;
+import fr.cylc.owlLib.api.IOwlService;
+import fr.cylc.owlLib.core.EventBusStatistics;
+import fr.cylc.owlLib.core.OwlComponentRegistry;
+import fr.cylc.owlLib.core.OwlEventBus;
+import fr.cylc.owlLib.core.OwlServiceLocator;
+import fr.cylc.owlLib.utils.ConfigManager;
+import fr.cylc.owlLib.utils.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collecteurs des composants de OwlLib
+ * Ils lisent les compteurs que chaque composant tient déjà (statistiques du bus, compteurs du registre...)
+ * au moment de la collecte : l'instrumentation n'ajoute rien sur les chemins critiques.
+ * Les statistiques détaillées du bus requièrent "events.metrics.enabled".
+ */
+final class OwlInstrumentation {
+
+    private OwlInstrumentation() {
+        // Constructeur privé pour empêcher l'instanciation
+    }
+
+    static void registerAll(OwlMetrics metrics) {
+        metrics.registerCollector(OwlInstrumentation::collectEventBus);
+        metrics.registerCollector(OwlInstrumentation::collectComponents);
+        metrics.registerCollector(OwlInstrumentation::collectServices);
+        metrics.registerCollector(OwlInstrumentation::collectConfig);
+        metrics.registerCollector(samples -> samples.add(MetricSample.counter("owllib_log_suppressed_total",
+                "Log messages suppressed by rate limits, folding or sampling", LoggerFactory.getSuppressedCount())));
+    }
+
+    private static void collectEventBus(List<MetricSample> samples) {
+        if (!OwlEventBus.isInitialized()) {
+            return;
+        }
+
+        EventBusStatistics statistics = OwlEventBus.getStatistics();
+        samples.add(MetricSample.gauge("owllib_events_main_thread_queue",
+                "Events waiting for main-thread delivery", statistics.getMainThreadQueueDepth()));
+        samples.add(MetricSample.counter("owllib_events_coalesced_total",
+                "Events replaced by a newer event with the same key", statistics.getCoalescedCount()));
+
+        for (EventBusStatistics.Entry entry : statistics.getEventTypes()) {
+            String type = entry.getName();
+            samples.add(MetricSample.counter("owllib_events_published_total", "Events published", entry.getPublished(), "type", type));
+            samples.add(MetricSample.counter("owllib_events_delivered_total", "Successful listener deliveries", entry.getDelivered(), "type", type));
+            samples.add(MetricSample.counter("owllib_events_failed_total", "Listener deliveries that threw", entry.getFailed(), "type", type));
+            samples.add(MetricSample.counter("owllib_events_rejected_total", "Events rejected by an overflow policy", entry.getRejected(), "type", type));
+            samples.add(MetricSample.timer("owllib_event_queue_wait_seconds", "Time between publication and delivery", entry.getQueueWait(), "type", type));
+            samples.add(MetricSample.timer("owllib_event_execution_seconds", "Listener execution time", entry.getExecution(), "type", type));
+        }
+        // Plusieurs inscriptions peuvent porter le même nom (deux instances d'une classe, un listener inscrit
+        // deux fois) : une série en double rendrait tout le fichier illisible pour Prometheus
+        Map<String, EventBusStatistics.Entry> listeners = new LinkedHashMap<>();
+        for (EventBusStatistics.Entry entry : statistics.getListeners()) {
+            listeners.merge(entry.getName(), entry, EventBusStatistics.Entry::merge);
+        }
+        for (EventBusStatistics.Entry entry : listeners.values()) {
+            samples.add(MetricSample.counter("owllib_listener_failed_total", "Listener invocations that threw",
+                    entry.getFailed(), "listener", entry.getName()));
+            samples.add(MetricSample.timer("owllib_listener_execution_seconds", "Listener execution time",
+                    entry.getExecution(), "listener", entry.getName()));
+        }
+    }
+
+    private static void collectComponents(List<MetricSample> samples) {
+        samples.add(MetricSample.gauge("owllib_components", "Registered components", OwlComponentRegistry.getComponentCount()));
+        samples.add(MetricSample.gauge("owllib_components_active", "Initialized components, lazy or not",
+                OwlComponentRegistry.getActiveComponentCount()));
+        samples.add(MetricSample.counter("owllib_component_activations_total", "Lazy components activated on demand",
+                OwlComponentRegistry.getActivationCount()));
+        samples.add(MetricSample.counter("owllib_component_deactivations_total", "Lazy components stopped after being idle",
+                OwlComponentRegistry.getDeactivationCount()));
+    }
+
+    private static void collectServices(List<MetricSample> samples) {
+        for (IOwlService service : OwlServiceLocator.getServices()) {
+            samples.add(MetricSample.gauge("owllib_service_up", "1 if the service is running",
+                    service.getStatus() == IOwlService.ServiceStatus.RUNNING ? 1 : 0, "service", service.getId()));
+        }
+        samples.add(MetricSample.counter("owllib_service_lookup_misses_total", "Service lookups that found nothing",
+                OwlServiceLocator.getMissCount()));
+    }
+
+    private static void collectConfig(List<MetricSample> samples) {
+        OwlLib plugin = OwlLib.getInstance();
+        ConfigManager config = plugin != null ? plugin.getConfigManager() : null;
+        if (config == null) {
+            return;
+        }
+        samples.add(MetricSample.counter("owllib_config_reloads_total", "Configuration reloads, manual or from disk changes",
+                config.getReloadCount()));
+        samples.add(MetricSample.counter("owllib_config_write_failures_total", "Configuration file writes that failed",
+                config.getWriteFailureCount()));
+        samples.add(MetricSample.timer("owllib_config_write_seconds", "Configuration file write time", config.getWriteLatency()));
+    }
+}
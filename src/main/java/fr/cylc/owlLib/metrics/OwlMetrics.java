@@ -0,0 +1,254 @@
+package fr.cylc.owlLib.metrics;
+
+import fr.cylc.owlLib.OwlLib;
+import fr.cylc.owlLib.api.IOwlService;
+import fr.cylc.owlLib.utils.ConfigManager;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.DoubleSupplier;
+import java.util.logging.Level;
+
+/**
+ * Registre de métriques partagé par OwlLib et les plugins qui en dépendent
+ * Enregistré dans OwlServiceLocator au démarrage ; un plugin le récupère une fois puis garde ses métriques :
+ * <pre>
+ * ServiceHandle&lt;OwlMetrics&gt; metrics = OwlServiceLocator.handle(OwlMetrics.class);
+ * Counter kills = metrics.require().counter("arena_kills_total", "Kills in arenas", "arena", "nether");
+ * </pre>
+ * Compteurs, timers et histogrammes enregistrent sans verrou ; tant que "metrics.enabled" est faux,
+ * ils ne font qu'une lecture volatile. Les composants de OwlLib (bus d'événements, registre, localisateur,
+ * configuration) sont exposés par des collecteurs lus à chaque collecte, sans coût sur leurs chemins critiques.
+ *
+ * Toutes les métriques sont visibles via /owlinfo metrics et, avec "metrics.export.enabled", écrites
+ * périodiquement au format texte Prometheus dans le dossier du plugin (collecteur textfile de node_exporter).
+ */
+public final class OwlMetrics implements IOwlService {
+
+    public static final String ID = "owl-metrics";
+
+    private static final long TICKS_PER_SECOND = 20L;
+
+    private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+    // Type de chaque nom : une famille Prometheus n'a qu'un type, quelles que soient ses étiquettes
+    private final Map<String, Class<? extends Metric>> types = new ConcurrentHashMap<>();
+    private final List<RegisteredCollector> collectors = new CopyOnWriteArrayList<>();
+    volatile boolean enabled;
+    private volatile ServiceStatus status = ServiceStatus.STOPPED;
+    private File exportFile;
+    private BukkitTask exportTask;
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public String getServiceName() {
+        return "OwlMetrics";
+    }
+
+    @Override
+    public ServiceStatus getStatus() {
+        return status;
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return status == ServiceStatus.RUNNING;
+    }
+
+    @Override
+    public synchronized void initialize() {
+        if (status == ServiceStatus.RUNNING) {
+            return;
+        }
+
+        OwlLib plugin = OwlLib.getInstance();
+        ConfigManager config = plugin.getConfigManager();
+        enabled = config.getBooleanValue("metrics.enabled", false);
+        if (collectors.isEmpty()) {
+            OwlInstrumentation.registerAll(this);
+        }
+
+        if (config.getBooleanValue("metrics.export.enabled", false)) {
+            exportFile = new File(plugin.getDataFolder(), config.getStringValue("metrics.export.file", "metrics.prom"));
+            long period = Math.max(1, config.getIntValue("metrics.export.interval-seconds", 15)) * TICKS_PER_SECOND;
+            exportTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::export, period, period);
+        }
+        status = ServiceStatus.RUNNING;
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (exportTask != null) {
+            exportTask.cancel();
+            exportTask = null;
+            // Dernières valeurs pour le collecteur
+            export();
+        }
+        status = ServiceStatus.STOPPED;
+    }
+
+    /**
+     * Active ou désactive l'enregistrement des compteurs, timers et histogrammes
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Récupère ou crée un compteur
+     * @param labels Paires clé, valeur (ex : "arena", "nether")
+     * @throws IllegalArgumentException si le nom est invalide ou déjà utilisé par une métrique d'un autre type
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return register(name, help, labels, Counter.class, (n, l) -> new Counter(this, n, help, l));
+    }
+
+    /**
+     * Récupère ou crée un timer
+     */
+    public Timer timer(String name, String help, String... labels) {
+        return register(name, help, labels, Timer.class, (n, l) -> new Timer(this, n, help, l));
+    }
+
+    /**
+     * Récupère ou crée un histogramme de valeurs
+     */
+    public Histogram histogram(String name, String help, String... labels) {
+        return register(name, help, labels, Histogram.class, (n, l) -> new Histogram(this, n, help, l));
+    }
+
+    /**
+     * Enregistre une jauge, lue à chaque collecte ; remplace une jauge de même nom et étiquettes
+     * @throws IllegalArgumentException si le nom est invalide ou déjà utilisé par une métrique d'un autre type
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        String formatted = Metric.formatLabels(labels);
+        Metric gauge = new Gauge(this, Metric.checkName(name), help, formatted, value);
+        claimName(name, Gauge.class);
+        metrics.put(name + formatted, gauge);
+    }
+
+    /**
+     * Ajoute un collecteur appelé à chaque collecte, pour exposer des valeurs tenues ailleurs
+     * Il n'est retiré que par unregisterCollector ; un plugin utilise plutôt registerCollector(préfixe, collecteur).
+     */
+    public void registerCollector(Collector collector) {
+        collectors.add(new RegisteredCollector(null, collector));
+    }
+
+    /**
+     * Ajoute un collecteur dont les métriques portent un préfixe de nom (ex : "arena_") ;
+     * il est retiré avec les autres métriques du préfixe par unregisterAll
+     */
+    public void registerCollector(String namePrefix, Collector collector) {
+        collectors.add(new RegisteredCollector(namePrefix, collector));
+    }
+
+    public void unregisterCollector(Collector collector) {
+        collectors.removeIf(registered -> registered.collector == collector);
+    }
+
+    /**
+     * Retire toutes les métriques dont le nom commence par un préfixe, ainsi que les collecteurs enregistrés
+     * avec ce préfixe ou un préfixe plus long (ex : au déchargement d'un plugin)
+     */
+    public void unregisterAll(String namePrefix) {
+        collectors.removeIf(registered -> registered.namePrefix != null && registered.namePrefix.startsWith(namePrefix));
+        metrics.values().removeIf(metric -> metric.name.startsWith(namePrefix));
+        types.keySet().removeIf(name -> name.startsWith(namePrefix));
+    }
+
+    /**
+     * Lit toutes les métriques et tous les collecteurs
+     */
+    public List<MetricSample> collect() {
+        List<MetricSample> samples = new ArrayList<>();
+        for (Metric metric : metrics.values()) {
+            samples.add(metric.sample());
+        }
+        for (RegisteredCollector registered : collectors) {
+            try {
+                registered.collector.collect(samples);
+            } catch (RuntimeException e) {
+                OwlLib.getInstance().getLogger().log(Level.WARNING, "Error in metrics collector", e);
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Écrit toutes les métriques au format texte Prometheus dans "metrics.export.file"
+     */
+    public void export() {
+        File file = exportFile;
+        if (file == null) {
+            return;
+        }
+        try {
+            PrometheusExporter.write(file.toPath(), collect());
+        } catch (IOException e) {
+            OwlLib.getInstance().getLogger().warning("Could not export metrics to '" + file.getName() + "': " + e.getMessage());
+        }
+    }
+
+    private <M extends Metric> M register(String name, String help, String[] labels, Class<M> type, Factory<M> factory) {
+        String formatted = Metric.formatLabels(labels);
+        claimName(name, type);
+        Metric metric = metrics.computeIfAbsent(name + formatted, key -> factory.create(Metric.checkName(name), formatted));
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric '" + name + "' is already registered as " + metric.getType());
+        }
+        return type.cast(metric);
+    }
+
+    /**
+     * Réserve un nom pour un type de métrique, quelles que soient les étiquettes
+     */
+    private void claimName(String name, Class<? extends Metric> type) {
+        Class<? extends Metric> existing = types.putIfAbsent(name, type);
+        if (existing != null && existing != type) {
+            throw new IllegalArgumentException("Metric '" + name + "' is already registered as " + existing.getSimpleName());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Factory<M extends Metric> {
+        M create(String name, String labels);
+    }
+
+    private static final class RegisteredCollector {
+        private final String namePrefix;
+        private final Collector collector;
+
+        private RegisteredCollector(String namePrefix, Collector collector) {
+            this.namePrefix = namePrefix;
+            this.collector = collector;
+        }
+    }
+
+    /**
+     * Source de métriques lue à chaque collecte
+     */
+    @FunctionalInterface
+    public interface Collector {
+
+        /**
+         * Ajoute les valeurs courantes, créées via MetricSample.counter, gauge, timer ou histogram
+         */
+        void collect(List<MetricSample> samples);
+    }
+}
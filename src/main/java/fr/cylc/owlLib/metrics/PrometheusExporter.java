@@ -0,0 +1,135 @@
+package fr.cylc.owlLib.metrics;
+
+import fr.cylc.owlLib.utils.LatencyHistogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mise en forme des métriques au format texte Prometheus (version 0.0.4)
+ * Les timers et histogrammes sont exportés en "summary" : quantiles, _sum et _count.
+ * Une famille n'a qu'un type : les échantillons d'un autre type portant le même nom sont ignorés, de même
+ * que ceux qui répètent les étiquettes d'un échantillon précédent de la famille.
+ */
+final class PrometheusExporter {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private PrometheusExporter() {
+        // Constructeur privé pour empêcher l'instanciation
+    }
+
+    /**
+     * Écrit les métriques dans un fichier, remplacé atomiquement pour ne jamais être lu à moitié écrit
+     */
+    static void write(Path target, List<MetricSample> samples) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(temp, format(samples).getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static String format(List<MetricSample> samples) {
+        // Les échantillons d'une même famille doivent se suivre, sous un seul HELP/TYPE
+        Map<String, List<MetricSample>> families = new LinkedHashMap<>();
+        for (MetricSample sample : samples) {
+            families.computeIfAbsent(sample.getName(), name -> new ArrayList<>()).add(sample);
+        }
+
+        StringBuilder out = new StringBuilder(4096);
+        for (Map.Entry<String, List<MetricSample>> family : families.entrySet()) {
+            String name = family.getKey();
+            MetricSample first = family.getValue().get(0);
+            if (first.getHelp() != null) {
+                out.append("# HELP ").append(name).append(' ').append(escapeHelp(first.getHelp())).append('\n');
+            }
+            out.append("# TYPE ").append(name).append(' ').append(typeName(first.getType())).append('\n');
+
+            Set<String> labelSets = new HashSet<>();
+            for (MetricSample sample : family.getValue()) {
+                if (sample.getType() != first.getType() || !labelSets.add(sample.getLabels())) {
+                    // Nom d'une autre famille ou série en double : le collecteur textfile refuserait tout le fichier
+                    continue;
+                }
+                if (sample.getDistribution() == null) {
+                    appendLine(out, name, sample.getLabels(), null, sample.getValue());
+                } else {
+                    appendSummary(out, name, sample);
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private static void appendSummary(StringBuilder out, String name, MetricSample sample) {
+        LatencyHistogram.Snapshot distribution = sample.getDistribution();
+        double scale = sample.getScale();
+        for (double quantile : QUANTILES) {
+            appendLine(out, name, sample.getLabels(), "quantile=\"" + quantile + "\"",
+                    distribution.getValueAtQuantile(quantile) * scale);
+        }
+        appendLine(out, name + "_sum", sample.getLabels(), null, distribution.getSum() * scale);
+        appendLine(out, name + "_count", sample.getLabels(), null, distribution.getCount());
+    }
+
+    private static void appendLine(StringBuilder out, String name, String labels, String extraLabel, double value) {
+        out.append(name);
+        if (extraLabel != null) {
+            if (labels.isEmpty()) {
+                out.append('{').append(extraLabel).append('}');
+            } else {
+                out.append(labels, 0, labels.length() - 1).append(',').append(extraLabel).append('}');
+            }
+        } else {
+            out.append(labels);
+        }
+        out.append(' ').append(formatValue(value)).append('\n');
+    }
+
+    static String formatValue(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static String typeName(MetricSample.Type type) {
+        switch (type) {
+            case COUNTER:
+                return "counter";
+            case GAUGE:
+                return "gauge";
+            case SUMMARY:
+            default:
+                return "summary";
+        }
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+}
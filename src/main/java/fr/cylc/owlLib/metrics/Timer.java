@@ -0,0 +1,54 @@
+package fr.cylc.owlLib.metrics;
+
+import fr.cylc.owlLib.utils.LatencyHistogram;
+
+/**
+ * Distribution de durées, exportée en secondes (quantiles, somme, nombre)
+ * Utilisation sans allocation :
+ * <pre>
+ * long start = timer.start();
+ * ...
+ * timer.stop(start);
+ * </pre>
+ * Lorsque les métriques sont désactivées, start() renvoie 0 sans lire l'horloge et stop(0) ne fait rien.
+ */
+public final class Timer extends Metric {
+
+    static final double NANOS_TO_SECONDS = 1e-9;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    Timer(OwlMetrics owner, String name, String help, String labels) {
+        super(owner, name, help, labels);
+    }
+
+    public long start() {
+        return owner.enabled ? System.nanoTime() : 0;
+    }
+
+    public void stop(long start) {
+        if (start != 0) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    public void record(long nanos) {
+        if (owner.enabled) {
+            histogram.record(nanos);
+        }
+    }
+
+    public LatencyHistogram.Snapshot snapshot() {
+        return histogram.snapshot();
+    }
+
+    @Override
+    MetricSample.Type getType() {
+        return MetricSample.Type.SUMMARY;
+    }
+
+    @Override
+    MetricSample sample() {
+        return MetricSample.of(name, help, MetricSample.Type.SUMMARY, labels, 0, histogram.snapshot(), NANOS_TO_SECONDS);
+    }
+}
@@ -0,0 +1,284 @@
+package fr.cylc.owlLib.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Processeur d'annotations qui génère l'index des composants d'un plugin
+ * Pour chaque compilation contenant des classes @OwlComponent ou @OwlService, il écrit une classe
+ * OwlComponentIndex_Generated (IOwlComponentIndex) qui les instancie par appel direct de leurs
+ * constructeurs, ainsi que sa déclaration META-INF/services.
+ * Le paquet de la classe générée est le paquet commun des classes annotées, ou l'option
+ * -Aowl.index.package si elle est fournie.
+ */
+@SupportedAnnotationTypes({OwlIndexProcessor.COMPONENT_ANNOTATION, OwlIndexProcessor.SERVICE_ANNOTATION})
+@SupportedOptions(OwlIndexProcessor.PACKAGE_OPTION)
+public final class OwlIndexProcessor extends AbstractProcessor {
+
+    static final String COMPONENT_ANNOTATION = "fr.cylc.owlLib.api.OwlComponent";
+    static final String SERVICE_ANNOTATION = "fr.cylc.owlLib.api.OwlService";
+    static final String PACKAGE_OPTION = "owl.index.package";
+
+    private static final String COMPONENT_TYPE = "fr.cylc.owlLib.api.IOwlComponent";
+    private static final String SERVICE_TYPE = "fr.cylc.owlLib.api.IOwlService";
+    private static final String INDEX_TYPE = "fr.cylc.owlLib.api.IOwlComponentIndex";
+    private static final String INDEX_CLASS = "OwlComponentIndex_Generated";
+
+    // Triés par nom qualifié pour que la sortie soit reproductible
+    private final Map<String, Entry> entries = new TreeMap<>();
+    private final List<Element> originatingElements = new ArrayList<>();
+    private boolean generated;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Elements elements = processingEnv.getElementUtils();
+        TypeElement componentAnnotation = elements.getTypeElement(COMPONENT_ANNOTATION);
+        TypeElement serviceAnnotation = elements.getTypeElement(SERVICE_ANNOTATION);
+
+        int known = entries.size();
+        if (componentAnnotation != null) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(componentAnnotation)) {
+                collect(element, false);
+            }
+        }
+        if (serviceAnnotation != null) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(serviceAnnotation)) {
+                collect(element, true);
+            }
+        }
+
+        // L'index est écrit dès le premier tour pour être lui-même compilé dans la foulée
+        if (generated && entries.size() > known) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Components generated by another processor cannot be added to an index already written");
+        } else if (!generated && !entries.isEmpty() && !roundEnv.errorRaised()) {
+            generate();
+            generated = true;
+        }
+        return true;
+    }
+
+    private void collect(Element element, boolean service) {
+        Messager messager = processingEnv.getMessager();
+        if (element.getKind() != ElementKind.CLASS) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@OwlComponent/@OwlService only apply to classes", element);
+            return;
+        }
+
+        TypeElement type = (TypeElement) element;
+        Set<Modifier> modifiers = type.getModifiers();
+        if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.ABSTRACT)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, type + " must be public and concrete", type);
+            return;
+        }
+        if (type.getNestingKind() == NestingKind.MEMBER && !modifiers.contains(Modifier.STATIC)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, type + " must be a top-level or static nested class", type);
+            return;
+        }
+        if (!hasPublicNoArgConstructor(type)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, type + " must have a public no-argument constructor", type);
+            return;
+        }
+        if (!isSubtype(type.asType(), service ? SERVICE_TYPE : COMPONENT_TYPE)) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    type + " must implement " + (service ? SERVICE_TYPE : COMPONENT_TYPE), type);
+            return;
+        }
+
+        String name = type.getQualifiedName().toString();
+        Entry entry = entries.computeIfAbsent(name, key -> new Entry(type));
+        if (service) {
+            TypeMirror registeredAs = serviceType(type);
+            if (!processingEnv.getTypeUtils().isAssignable(type.asType(), registeredAs)) {
+                messager.printMessage(Diagnostic.Kind.ERROR, type + " is not assignable to " + registeredAs, type);
+                return;
+            }
+            entry.serviceType = processingEnv.getTypeUtils().erasure(registeredAs).toString();
+        }
+        originatingElements.add(type);
+    }
+
+    private boolean hasPublicNoArgConstructor(TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSubtype(TypeMirror type, String supertype) {
+        TypeElement element = processingEnv.getElementUtils().getTypeElement(supertype);
+        Types types = processingEnv.getTypeUtils();
+        return element != null && types.isAssignable(types.erasure(type), types.erasure(element.asType()));
+    }
+
+    /**
+     * Lit OwlService.value() ; la classe annotée elle-même si la valeur par défaut est conservée
+     */
+    private TypeMirror serviceType(TypeElement type) {
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(SERVICE_ANNOTATION)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : mirror.getElementValues().entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals("value")) {
+                    TypeMirror declared = (TypeMirror) value.getValue().getValue();
+                    if (declared instanceof DeclaredType
+                            && !((TypeElement) ((DeclaredType) declared).asElement()).getQualifiedName().contentEquals(SERVICE_TYPE)) {
+                        return declared;
+                    }
+                }
+            }
+        }
+        return type.asType();
+    }
+
+    private void generate() {
+        String packageName = processingEnv.getOptions().get(PACKAGE_OPTION);
+        if (packageName == null || packageName.isEmpty()) {
+            packageName = commonPackage();
+        }
+        if (packageName.isEmpty()) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Annotated components share no package, set -A" + PACKAGE_OPTION + "=<package>");
+            return;
+        }
+
+        String indexName = packageName + "." + INDEX_CLASS;
+        Filer filer = processingEnv.getFiler();
+        Element[] origins = originatingElements.toArray(new Element[0]);
+        try {
+            JavaFileObject source = filer.createSourceFile(indexName, origins);
+            try (Writer writer = source.openWriter()) {
+                writer.write(render(packageName));
+            }
+
+            FileObject services = filer.createResource(StandardLocation.CLASS_OUTPUT, "",
+                    "META-INF/services/" + INDEX_TYPE, origins);
+            try (Writer writer = services.openWriter()) {
+                writer.write(indexName + "\n");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write component index: " + e.getMessage());
+        }
+    }
+
+    private String render(String packageName) {
+        StringBuilder source = new StringBuilder()
+                .append("package ").append(packageName).append(";\n\n")
+                .append("import fr.cylc.owlLib.api.IOwlComponent;\n")
+                .append("import fr.cylc.owlLib.api.IOwlComponentIndex;\n")
+                .append("import fr.cylc.owlLib.api.IOwlService;\n")
+                .append("import fr.cylc.owlLib.core.OwlServiceLocator;\n\n")
+                .append("import java.util.List;\n\n")
+                .append("/**\n * Généré par ").append(OwlIndexProcessor.class.getName()).append(", ne pas modifier\n */\n")
+                .append("public final class ").append(INDEX_CLASS).append(" implements IOwlComponentIndex {\n\n")
+                .append("    @Override\n")
+                .append("    public List<Class<? extends IOwlComponent>> getComponentTypes() {\n")
+                .append("        return List.of(");
+
+        int index = 0;
+        for (Entry entry : entries.values()) {
+            source.append(index++ == 0 ? "\n                " : ",\n                ").append(entry.className).append(".class");
+        }
+        source.append(");\n    }\n\n")
+                .append("    @Override\n")
+                .append("    public List<Class<? extends IOwlService>> getServiceTypes() {\n")
+                .append("        return List.of(");
+
+        index = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.serviceType != null) {
+                source.append(index++ == 0 ? "\n                " : ",\n                ").append(entry.serviceType).append(".class");
+            }
+        }
+        source.append(");\n    }\n\n")
+                .append("    @Override\n")
+                .append("    public List<IOwlComponent> wire() {\n");
+
+        index = 0;
+        for (Entry entry : entries.values()) {
+            source.append("        ").append(entry.className).append(" c").append(index).append(" = new ")
+                    .append(entry.className).append("();\n");
+            if (entry.serviceType != null) {
+                source.append("        OwlServiceLocator.registerService(").append(entry.serviceType).append(".class, c")
+                        .append(index).append(");\n");
+            }
+            index++;
+        }
+
+        source.append("        return List.of(");
+        for (int i = 0; i < index; i++) {
+            source.append(i == 0 ? "" : ", ").append('c').append(i);
+        }
+        return source.append(");\n    }\n}\n").toString();
+    }
+
+    private String commonPackage() {
+        String common = null;
+        for (Entry entry : entries.values()) {
+            String packageName = entry.packageName;
+            if (common == null) {
+                common = packageName;
+                continue;
+            }
+            while (!packageName.equals(common) && !packageName.startsWith(common + ".")) {
+                int dot = common.lastIndexOf('.');
+                common = dot < 0 ? "" : common.substring(0, dot);
+                if (common.isEmpty()) {
+                    return "";
+                }
+            }
+        }
+        return common == null ? "" : common;
+    }
+
+    /**
+     * Classe annotée à câbler
+     */
+    private final class Entry {
+        private final String className;
+        private final String packageName;
+        private String serviceType;
+
+        private Entry(TypeElement type) {
+            this.className = type.getQualifiedName().toString();
+            this.packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        }
+    }
+}
@@ -0,0 +1,544 @@
+package fr.cylc.owlLib.profiler;
+
+import fr.cylc.owlLib.OwlLib;
+import fr.cylc.owlLib.api.IOwlCommand;
+import fr.cylc.owlLib.api.IOwlComponent;
+import fr.cylc.owlLib.utils.ConfigManager;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Profileur du thread principal, tick par tick
+ * Attribue le temps et les octets alloués (ThreadMXBean) de chaque tick aux composants, listeners et commandes
+ * qui l'ont occupé, garde les pires ticks d'une fenêtre glissante et les écrit à la demande au format
+ * "collapsed stacks" des flame graphs (flamegraph.pl, speedscope, async-profiler converter...).
+ *
+ * Deux sources complémentaires :
+ * - des spans ouverts autour des listeners du bus, de l'initialisation et de l'arrêt des composants et des commandes :
+ *   deux lectures d'horloge (et du compteur d'allocations) par appel, sans allocation ;
+ * - un échantillonneur de la pile du thread principal, actif uniquement pendant les ticks en retard.
+ *
+ * Un plugin mesure ses propres traitements avec :
+ * <pre>
+ * try (OwlProfiler.Span ignored = OwlProfiler.enter(this)) {
+ *     // ...
+ * }
+ * </pre>
+ * Les tâches planifiées et les listeners Bukkit d'un composant ne passent pas par OwlLib : ils ne sont attribués
+ * que s'ils sont enveloppés par wrap, ex : runTaskTimer(plugin, OwlProfiler.wrap(this, this::tick), 1L, 1L)
+ * ou registerEvent(..., OwlProfiler.wrap(this, executor), plugin). Sinon leur temps reste dans le reste du tick.
+ * Hors du thread principal, ou profileur désactivé, enter renvoie un span vide pour le prix d'une lecture volatile :
+ * les composants initialisés hors du thread principal (requiresMainThread() false) ne sont pas attribués.
+ * Tout l'état des spans et des ticks est confiné au thread principal.
+ */
+public final class OwlProfiler {
+
+    private static final int MAX_DEPTH = 64;
+    private static final int MAX_DISTINCT_SAMPLES = 10_000;
+    private static final long TICKS_PER_SECOND = 20L;
+    private static final Span NOOP = new Span(-1);
+    private static final Map<Kind, Map<String, Frame>> frames = new EnumMap<>(Kind.class);
+    private static final Frame UNATTRIBUTED = new Frame(Kind.TASK, "other");
+
+    static {
+        for (Kind kind : Kind.values()) {
+            frames.put(kind, new ConcurrentHashMap<>());
+        }
+    }
+
+    private static volatile boolean enabled;
+    private static volatile boolean initialized;
+    private static Thread mainThread;
+    private static com.sun.management.ThreadMXBean allocationBean;
+    private static BukkitTask tickTask;
+    private static StackSampler sampler;
+    private static Path dumpFolder;
+    private static int worstTickLimit;
+    private static int windowTicks;
+
+    // État confiné au thread principal
+    private static final Span[] stack = new Span[MAX_DEPTH];
+    private static int depth;
+    private static ProfileNode totalRoot = new ProfileNode(null);
+    private static ProfileNode tickRoot = new ProfileNode(totalRoot);
+    private static boolean tickTouched;
+    private static final List<TickProfile> worstTicks = new ArrayList<>();
+    private static final Map<String, Integer> totalSamples = new HashMap<>();
+    private static long tickStart;
+    private static long tickAllocationStart;
+    private static long profiledTicks;
+
+    // Lus par l'échantillonneur
+    static volatile long tickStartNanos;
+    static volatile int currentTick;
+    static volatile String activePath;
+
+    static {
+        for (int i = 0; i < MAX_DEPTH; i++) {
+            stack[i] = new Span(i);
+        }
+    }
+
+    private OwlProfiler() {
+        // Constructeur privé pour empêcher l'instanciation
+    }
+
+    /**
+     * Initialise le profileur ; doit être appelé depuis le thread principal
+     */
+    public static void initialize() {
+        OwlLib plugin = OwlLib.getInstance();
+        ConfigManager config = plugin.getConfigManager();
+        mainThread = Thread.currentThread();
+        worstTickLimit = Math.max(1, config.getIntValue("profiler.worst-ticks", 10));
+        windowTicks = (int) (Math.max(1, config.getIntValue("profiler.window-seconds", 300)) * TICKS_PER_SECOND);
+        dumpFolder = plugin.getDataFolder().toPath().resolve(config.getStringValue("profiler.dump-folder", "profiles"));
+
+        allocationBean = null;
+        if (config.getBooleanValue("profiler.track-allocations", true)
+                && ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            if (bean.isThreadAllocatedMemorySupported()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+                allocationBean = bean;
+            } else {
+                plugin.getLogger().warning("Thread allocation tracking is not supported by this JVM, profiler will only measure time");
+            }
+        }
+
+        tickTask = Bukkit.getScheduler().runTaskTimer(plugin, OwlProfiler::onTick, 1L, 1L);
+        if (config.getBooleanValue("profiler.sampling.enabled", true)) {
+            sampler = new StackSampler(mainThread,
+                    Math.max(1, config.getIntValue("profiler.sampling.interval-ms", 10)),
+                    Math.max(1, config.getIntValue("profiler.sampling.slow-tick-ms", 60)));
+            sampler.start();
+        }
+
+        enabled = config.getBooleanValue("profiler.enabled", true);
+        initialized = true;
+        plugin.getLogger().info("Profiler initialized" + (enabled ? "" : " (disabled, see profiler.enabled)"));
+    }
+
+    /**
+     * Arrête la tâche de tick et l'échantillonneur
+     */
+    public static void shutdown() {
+        enabled = false;
+        initialized = false;
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        if (sampler != null) {
+            sampler.close();
+            sampler = null;
+        }
+        tickStart = 0;
+        tickStartNanos = 0;
+    }
+
+    public static boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * Active ou désactive la mesure des spans ; les données déjà recueillies sont conservées
+     */
+    public static void setEnabled(boolean enabled) {
+        OwlProfiler.enabled = enabled && initialized;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static boolean isTrackingAllocations() {
+        return allocationBean != null;
+    }
+
+    public static boolean isSampling() {
+        return sampler != null;
+    }
+
+    /**
+     * Nombre de ticks profilés depuis le démarrage ou la dernière réinitialisation
+     */
+    public static long getProfiledTicks() {
+        return profiledTicks;
+    }
+
+    /**
+     * Renvoie une frame, partagée par tous les appels pour le même type et le même identifiant
+     * Les appelants fréquents la gardent dans un champ pour éviter la recherche.
+     */
+    public static Frame frame(Kind kind, String id) {
+        Map<String, Frame> byId = frames.get(kind);
+        Frame frame = byId.get(id);
+        if (frame == null) {
+            frame = byId.computeIfAbsent(id, key -> new Frame(kind, key));
+        }
+        return frame;
+    }
+
+    /**
+     * Ouvre un span au nom d'un composant (ou d'une commande pour un IOwlCommand)
+     */
+    public static Span enter(IOwlComponent component) {
+        if (!enabled || Thread.currentThread() != mainThread) {
+            return NOOP;
+        }
+        return enter(frame(component instanceof IOwlCommand ? Kind.COMMAND : Kind.COMPONENT, component.getId()));
+    }
+
+    /**
+     * Ouvre un span, à fermer dans un bloc try-with-resources
+     * @return Le span ouvert, ou un span vide hors du thread principal ou si le profileur est désactivé
+     */
+    public static Span enter(Frame frame) {
+        if (!enabled || Thread.currentThread() != mainThread || depth == MAX_DEPTH) {
+            return NOOP;
+        }
+
+        ProfileNode parent = depth == 0 ? tickRoot : stack[depth - 1].node;
+        Span span = stack[depth++];
+        span.node = parent.child(frame);
+        span.childNanos = 0;
+        span.childBytes = 0;
+        tickTouched = true;
+        activePath = span.node.path;
+        span.startBytes = allocatedBytes();
+        span.startNanos = System.nanoTime();
+        return span;
+    }
+
+    /**
+     * Exécute une commande dans un span à son nom
+     */
+    public static IOwlCommand.CommandResult execute(IOwlCommand command, String... params) {
+        try (Span ignored = enter(command)) {
+            return command.execute(params);
+        }
+    }
+
+    /**
+     * Enveloppe une tâche planifiée d'un composant dans un span "task:&lt;id du composant&gt;"
+     */
+    public static Runnable wrap(IOwlComponent component, Runnable task) {
+        Frame frame = frame(Kind.TASK, component.getId());
+        return () -> {
+            try (Span ignored = enter(frame)) {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * Enveloppe l'exécuteur d'un listener Bukkit d'un composant dans un span "listener:&lt;id du composant&gt;",
+     * à passer à PluginManager.registerEvent ; les listeners enregistrés par registerEvents ne sont pas mesurés
+     */
+    public static EventExecutor wrap(IOwlComponent component, EventExecutor executor) {
+        Frame frame = frame(Kind.LISTENER, component.getId());
+        return (listener, event) -> {
+            try (Span ignored = enter(frame)) {
+                executor.execute(listener, event);
+            }
+        };
+    }
+
+    private static void exit(Span span) {
+        if (Thread.currentThread() != mainThread || span.index >= depth) {
+            // Déjà fermé, par exemple par un span parent fermé avant lui
+            return;
+        }
+        // Un span fermé avant ceux ouverts après lui les ferme d'abord
+        while (depth - 1 > span.index) {
+            exit(stack[depth - 1]);
+        }
+
+        long elapsed = System.nanoTime() - span.startNanos;
+        long allocated = allocatedBytes() - span.startBytes;
+        depth--;
+        span.node.record(elapsed, span.childNanos, allocated, span.childBytes);
+        if (depth > 0) {
+            Span parent = stack[depth - 1];
+            parent.childNanos += elapsed;
+            parent.childBytes += allocated;
+            activePath = parent.node.path;
+        } else {
+            activePath = null;
+        }
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean bean = allocationBean;
+        return bean != null ? bean.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    /**
+     * Exécuté à chaque tick : clôt le tick précédent et ouvre le suivant
+     */
+    private static void onTick() {
+        long now = System.nanoTime();
+        long allocation = allocatedBytes();
+        if (tickStart != 0 && enabled) {
+            endTick(currentTick, now - tickStart, allocation - tickAllocationStart);
+        } else if (tickTouched) {
+            // Spans du démarrage : ils restent dans le cumul mais n'appartiennent à aucun tick mesuré
+            tickRoot.reset();
+            tickTouched = false;
+        }
+
+        currentTick = Bukkit.getCurrentTick();
+        tickAllocationStart = allocation;
+        tickStart = now;
+        // L'échantillonneur ne travaille que pour un profileur actif
+        tickStartNanos = enabled ? now : 0;
+    }
+
+    private static void endTick(int tick, long durationNanos, long allocatedBytes) {
+        profiledTicks++;
+        Map<String, Integer> tickSamples = drainSamples(tick);
+
+        worstTicks.removeIf(profile -> tick - profile.getTick() > windowTicks);
+        TickProfile lightest = null;
+        if (worstTicks.size() >= worstTickLimit) {
+            for (TickProfile profile : worstTicks) {
+                if (lightest == null || profile.getDurationNanos() < lightest.getDurationNanos()) {
+                    lightest = profile;
+                }
+            }
+        }
+
+        if (lightest == null || durationNanos > lightest.getDurationNanos()) {
+            worstTicks.remove(lightest);
+            worstTicks.add(new TickProfile(tick, durationNanos, allocatedBytes, tickRoot, tickSamples));
+            // L'arbre appartient désormais au profil conservé
+            tickRoot = new ProfileNode(totalRoot);
+        } else if (tickTouched) {
+            tickRoot.reset();
+        }
+        tickTouched = false;
+    }
+
+    private static Map<String, Integer> drainSamples(int tick) {
+        StackSampler current = sampler;
+        if (current == null) {
+            return Map.of();
+        }
+
+        Map<String, Integer> tickSamples = null;
+        StackSampler.Sample sample;
+        while ((sample = current.poll()) != null) {
+            if (totalSamples.size() < MAX_DISTINCT_SAMPLES || totalSamples.containsKey(sample.stack)) {
+                totalSamples.merge(sample.stack, 1, Integer::sum);
+            }
+            if (sample.tick == tick) {
+                if (tickSamples == null) {
+                    tickSamples = new HashMap<>();
+                }
+                tickSamples.merge(sample.stack, 1, Integer::sum);
+            }
+        }
+        return tickSamples != null ? tickSamples : Map.of();
+    }
+
+    /**
+     * Renvoie les pires ticks de la fenêtre, du plus long au plus court ; depuis le thread principal
+     */
+    public static List<TickProfile> getWorstTicks() {
+        requireMainThread();
+        List<TickProfile> sorted = new ArrayList<>(worstTicks);
+        sorted.sort((a, b) -> Long.compare(b.getDurationNanos(), a.getDurationNanos()));
+        return sorted;
+    }
+
+    /**
+     * Oublie les données recueillies : cumul, pires ticks et échantillons ; depuis le thread principal
+     */
+    public static void reset() {
+        requireMainThread();
+        // Les spans encore ouverts finissent dans l'ancien arbre, qui n'est plus lu
+        totalRoot = new ProfileNode(null);
+        tickRoot = new ProfileNode(totalRoot);
+        tickTouched = false;
+        worstTicks.clear();
+        totalSamples.clear();
+        profiledTicks = 0;
+    }
+
+    /**
+     * Écrit les données recueillies au format "collapsed stacks" dans un nouveau dossier de "profiler.dump-folder" :
+     * - all-time / all-alloc : cumul depuis le démarrage, en microsecondes et en octets ;
+     * - worst-ticks-time / worst-ticks-alloc : les pires ticks, chacun sous une frame "tick N (durée)" ;
+     * - samples / worst-ticks-samples : les échantillons de pile, en nombre d'échantillons.
+     * Les données sont mises en forme sur le thread principal puis écrites sur un autre thread.
+     * @return Le dossier créé
+     */
+    public static CompletableFuture<Path> dump() {
+        requireMainThread();
+        if (!initialized) {
+            throw new IllegalStateException("OwlProfiler not initialized");
+        }
+
+        Map<String, String> files = new LinkedHashMap<>();
+        List<TickProfile> ticks = getWorstTicks();
+
+        StringBuilder out = new StringBuilder(4096);
+        totalRoot.appendCollapsed(out, null, false);
+        files.put("all-time.collapsed", out.toString());
+
+        out.setLength(0);
+        for (TickProfile profile : ticks) {
+            String prefix = profile.describe();
+            profile.root.appendCollapsed(out, prefix, false);
+            // Le reste du tick : serveur, autres plugins et attente du tick suivant
+            long other = (profile.getDurationNanos() - profile.getOwlLibNanos()) / 1000;
+            if (other > 0) {
+                out.append(prefix).append(';').append(UNATTRIBUTED.getName()).append(' ').append(other).append('\n');
+            }
+        }
+        files.put("worst-ticks-time.collapsed", out.toString());
+
+        if (allocationBean != null) {
+            out.setLength(0);
+            totalRoot.appendCollapsed(out, null, true);
+            files.put("all-alloc.collapsed", out.toString());
+
+            out.setLength(0);
+            for (TickProfile profile : ticks) {
+                profile.root.appendCollapsed(out, profile.describe(), true);
+            }
+            files.put("worst-ticks-alloc.collapsed", out.toString());
+        }
+
+        if (!totalSamples.isEmpty()) {
+            out.setLength(0);
+            appendSamples(out, null, totalSamples);
+            files.put("samples.collapsed", out.toString());
+
+            out.setLength(0);
+            for (TickProfile profile : ticks) {
+                appendSamples(out, profile.describe(), profile.samples);
+            }
+            files.put("worst-ticks-samples.collapsed", out.toString());
+        }
+
+        Path folder = dumpFolder.resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss", Locale.ROOT)));
+        CompletableFuture<Path> result = new CompletableFuture<>();
+        Bukkit.getScheduler().runTaskAsynchronously(OwlLib.getInstance(), () -> {
+            try {
+                Files.createDirectories(folder);
+                for (Map.Entry<String, String> file : files.entrySet()) {
+                    Files.write(folder.resolve(file.getKey()), file.getValue().getBytes(StandardCharsets.UTF_8));
+                }
+                result.complete(folder);
+            } catch (IOException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private static void appendSamples(StringBuilder out, String prefix, Map<String, Integer> samples) {
+        for (Map.Entry<String, Integer> sample : samples.entrySet()) {
+            if (prefix != null) {
+                out.append(prefix).append(';');
+            }
+            out.append(sample.getKey()).append(' ').append(sample.getValue()).append('\n');
+        }
+    }
+
+    private static void requireMainThread() {
+        if (mainThread != null && Thread.currentThread() != mainThread) {
+            throw new IllegalStateException("OwlProfiler data must be read from the main thread");
+        }
+    }
+
+    /**
+     * Nature de ce qui est mesuré, premier mot du nom des frames
+     */
+    public enum Kind {
+        COMPONENT,
+        LISTENER,
+        COMMAND,
+        TASK;
+
+        private final String label = name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Élément nommé des piles du profileur, ex : "listener:fr.example.ArenaListener"
+     */
+    public static final class Frame {
+
+        private final Kind kind;
+        private final String id;
+        private final String name;
+
+        private Frame(Kind kind, String id) {
+            this.kind = kind;
+            this.id = id;
+            // ';' sépare les frames et la fin de ligne les piles dans le format collapsed
+            this.name = kind.label + ':' + id.replace(';', ',').replace('\n', ' ');
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Span ouvert par enter ; un même objet est réutilisé pour chaque profondeur de la pile
+     */
+    public static final class Span implements AutoCloseable {
+
+        private final int index;
+        private ProfileNode node;
+        private long startNanos;
+        private long startBytes;
+        private long childNanos;
+        private long childBytes;
+
+        private Span(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void close() {
+            if (index >= 0) {
+                exit(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package fr.cylc.owlLib.profiler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Nœud de l'arbre des spans : un chemin de frames (ex : listener, puis composant activé par ce listener)
+ * Chaque arbre d'un tick est relié nœud à nœud à l'arbre cumulé, mis à jour dans le même appel.
+ * Confiné au thread principal.
+ */
+final class ProfileNode {
+
+    final OwlProfiler.Frame frame;
+    final String path;
+    private final ProfileNode total;
+    private Map<OwlProfiler.Frame, ProfileNode> children;
+
+    long calls;
+    long totalNanos;
+    long selfNanos;
+    long totalBytes;
+    long selfBytes;
+
+    /**
+     * Crée la racine d'un arbre
+     * @param total La racine de l'arbre cumulé, ou null pour créer l'arbre cumulé lui-même
+     */
+    ProfileNode(ProfileNode total) {
+        this(null, null, total);
+    }
+
+    private ProfileNode(OwlProfiler.Frame frame, ProfileNode parent, ProfileNode total) {
+        this.frame = frame;
+        this.total = total;
+        if (total != null) {
+            this.path = total.path;
+        } else if (frame == null) {
+            this.path = null;
+        } else {
+            this.path = parent.path == null ? frame.getName() : parent.path + ';' + frame.getName();
+        }
+    }
+
+    ProfileNode child(OwlProfiler.Frame frame) {
+        if (children == null) {
+            children = new HashMap<>();
+        }
+        ProfileNode child = children.get(frame);
+        if (child == null) {
+            child = new ProfileNode(frame, this, total != null ? total.child(frame) : null);
+            children.put(frame, child);
+        }
+        return child;
+    }
+
+    void record(long elapsedNanos, long childNanos, long allocatedBytes, long childBytes) {
+        calls++;
+        totalNanos += elapsedNanos;
+        selfNanos += elapsedNanos - childNanos;
+        totalBytes += allocatedBytes;
+        selfBytes += allocatedBytes - childBytes;
+        if (total != null) {
+            total.record(elapsedNanos, childNanos, allocatedBytes, childBytes);
+        }
+    }
+
+    /**
+     * Remet les compteurs à zéro en gardant les nœuds, pour ne rien allouer au tick suivant
+     */
+    void reset() {
+        calls = 0;
+        totalNanos = 0;
+        selfNanos = 0;
+        totalBytes = 0;
+        selfBytes = 0;
+        if (children != null) {
+            for (ProfileNode child : children.values()) {
+                child.reset();
+            }
+        }
+    }
+
+    /**
+     * Somme du temps des spans de premier niveau : le temps du tick passé dans OwlLib
+     */
+    long getRootNanos() {
+        long sum = 0;
+        if (children != null) {
+            for (ProfileNode child : children.values()) {
+                sum += child.totalNanos;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Additionne le temps et les allocations propres de chaque frame, quel que soit son chemin
+     */
+    void aggregate(Map<OwlProfiler.Frame, long[]> byFrame) {
+        if (frame != null && calls > 0) {
+            long[] values = byFrame.computeIfAbsent(frame, key -> new long[3]);
+            values[0] += calls;
+            values[1] += selfNanos;
+            values[2] += selfBytes;
+        }
+        if (children != null) {
+            for (ProfileNode child : children.values()) {
+                child.aggregate(byFrame);
+            }
+        }
+    }
+
+    /**
+     * Écrit une ligne "frame;frame;frame valeur" par nœud, avec sa valeur propre
+     * @param prefix Frame ajoutée devant chaque chemin (ex : le tick), ou null
+     * @param bytes true pour les octets alloués, false pour le temps en microsecondes
+     */
+    void appendCollapsed(StringBuilder out, String prefix, boolean bytes) {
+        if (frame != null) {
+            long value = bytes ? selfBytes : selfNanos / 1000;
+            if (value > 0) {
+                if (prefix != null) {
+                    out.append(prefix).append(';');
+                }
+                out.append(path).append(' ').append(value).append('\n');
+            }
+        }
+        if (children != null) {
+            for (ProfileNode child : children.values()) {
+                child.appendCollapsed(out, prefix, bytes);
+            }
+        }
+    }
+}
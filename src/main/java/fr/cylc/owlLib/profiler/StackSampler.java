@@ -0,0 +1,108 @@
+package fr.cylc.owlLib.profiler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Échantillonneur de la pile du thread principal
+ * Ne prend d'échantillon que lorsque le tick en cours dure depuis plus de "profiler.sampling.slow-tick-ms" :
+ * un serveur sain n'en paie jamais le coût (Thread.getStackTrace suspend le thread visé).
+ * Les échantillons sont remis au thread principal par une file, vidée à la fin de chaque tick.
+ */
+final class StackSampler {
+
+    private static final int MAX_PENDING = 10_000;
+    private static final int MAX_FRAMES = 128;
+
+    private final Thread target;
+    private final long intervalMillis;
+    private final long slowTickNanos;
+    private final Queue<Sample> samples = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    StackSampler(Thread target, long intervalMillis, long slowTickMillis) {
+        this.target = target;
+        this.intervalMillis = intervalMillis;
+        this.slowTickNanos = TimeUnit.MILLISECONDS.toNanos(slowTickMillis);
+        this.thread = new Thread(this::run, "OwlLib-Profiler");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void close() {
+        running = false;
+        thread.interrupt();
+    }
+
+    /**
+     * Retire le prochain échantillon, ou null si la file est vide ; appelé par le thread principal
+     */
+    Sample poll() {
+        Sample sample = samples.poll();
+        if (sample != null) {
+            pending.decrementAndGet();
+        }
+        return sample;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            long tickStart = OwlProfiler.tickStartNanos;
+            if (tickStart == 0 || System.nanoTime() - tickStart < slowTickNanos || pending.get() >= MAX_PENDING) {
+                continue;
+            }
+            int tick = OwlProfiler.currentTick;
+            String spanPath = OwlProfiler.activePath;
+            StackTraceElement[] trace = target.getStackTrace();
+            if (trace.length == 0) {
+                continue;
+            }
+
+            samples.add(new Sample(tick, collapse(spanPath, trace)));
+            pending.incrementAndGet();
+        }
+    }
+
+    /**
+     * Met la pile au format des flame graphs : chemin des spans ouverts, puis frames de la plus ancienne à la plus récente
+     */
+    private static String collapse(String spanPath, StackTraceElement[] trace) {
+        StringBuilder out = new StringBuilder(trace.length * 48);
+        if (spanPath != null) {
+            out.append(spanPath).append(';');
+        }
+        // Les piles trop profondes sont tronquées côté racine : les frames récentes sont les plus utiles
+        for (int i = Math.min(trace.length, MAX_FRAMES) - 1; i >= 0; i--) {
+            StackTraceElement element = trace[i];
+            out.append(element.getClassName()).append('.').append(element.getMethodName());
+            if (i > 0) {
+                out.append(';');
+            }
+        }
+        return out.toString();
+    }
+
+    static final class Sample {
+
+        final int tick;
+        final String stack;
+
+        Sample(int tick, String stack) {
+            this.tick = tick;
+            this.stack = stack;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package fr.cylc.owlLib.profiler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Profil d'un tick conservé parmi les pires ticks de la fenêtre glissante
+ * La durée est l'intervalle entre deux passages de la tâche du profiler : elle inclut l'attente
+ * entre deux ticks, donc vaut environ 50 ms sur un serveur sain et plus lorsqu'un tick prend du retard.
+ */
+public final class TickProfile {
+
+    private final int tick;
+    private final long durationNanos;
+    private final long allocatedBytes;
+    private final long owlLibNanos;
+    final ProfileNode root;
+    final Map<String, Integer> samples;
+
+    TickProfile(int tick, long durationNanos, long allocatedBytes, ProfileNode root, Map<String, Integer> samples) {
+        this.tick = tick;
+        this.durationNanos = durationNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.owlLibNanos = root.getRootNanos();
+        this.root = root;
+        this.samples = samples;
+    }
+
+    /**
+     * Numéro du tick côté serveur
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Octets alloués par le thread principal pendant le tick, ou 0 si le suivi des allocations est désactivé
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Temps du tick passé dans les composants, listeners et commandes mesurés
+     */
+    public long getOwlLibNanos() {
+        return owlLibNanos;
+    }
+
+    /**
+     * Nombre d'échantillons de pile pris pendant ce tick
+     */
+    public int getSampleCount() {
+        int count = 0;
+        for (int value : samples.values()) {
+            count += value;
+        }
+        return count;
+    }
+
+    /**
+     * Renvoie les frames qui ont le plus coûté pendant ce tick, par temps propre décroissant
+     */
+    public List<Entry> getTopFrames(int limit) {
+        Map<OwlProfiler.Frame, long[]> byFrame = new HashMap<>();
+        root.aggregate(byFrame);
+
+        List<Entry> entries = new ArrayList<>(byFrame.size());
+        for (Map.Entry<OwlProfiler.Frame, long[]> frame : byFrame.entrySet()) {
+            long[] values = frame.getValue();
+            entries.add(new Entry(frame.getKey().getName(), values[0], values[1], values[2]));
+        }
+        entries.sort((a, b) -> Long.compare(b.selfNanos, a.selfNanos));
+        return entries.size() > limit ? entries.subList(0, limit) : entries;
+    }
+
+    String describe() {
+        return "tick " + tick + " (" + String.format("%.1f", durationNanos / 1_000_000.0) + "ms)";
+    }
+
+    /**
+     * Coût d'une frame pendant un tick
+     */
+    public static final class Entry {
+
+        private final String name;
+        private final long calls;
+        private final long selfNanos;
+        private final long selfBytes;
+
+        Entry(String name, long calls, long selfNanos, long selfBytes) {
+            this.name = name;
+            this.calls = calls;
+            this.selfNanos = selfNanos;
+            this.selfBytes = selfBytes;
+        }
+
+        /**
+         * Nom de la frame, ex : "listener:fr.example.ArenaListener" ou "component:arena-manager"
+         */
+        public String getName() {
+            return name;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        /**
+         * Temps passé dans la frame elle-même, hors frames imbriquées
+         */
+        public long getSelfNanos() {
+            return selfNanos;
+        }
+
+        public long getSelfBytes() {
+            return selfBytes;
+        }
+    }
+}
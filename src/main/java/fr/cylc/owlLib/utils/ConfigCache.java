@@ -0,0 +1,304 @@
+package fr.cylc.owlLib.utils;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache binaire des configurations personnalisées volumineuses
+ * Après une analyse YAML, l'arbre obtenu est écrit à côté du fichier ("loot.yml" -> "loot.yml.cache")
+ * avec la taille, la date de modification et la somme de contrôle du YAML source. Au chargement suivant,
+ * si le YAML n'a pas changé, l'arbre est relu depuis le cache par une lecture mappée en mémoire,
+ * sans passer par l'analyseur YAML.
+ *
+ * Une configuration reconstruite depuis le cache ne conserve pas les commentaires du fichier :
+ * le cache est donc réservé aux fichiers d'au moins "persistence.config-cache-min-size-kb",
+ * typiquement des tables générées. Seuls les types produits par l'analyseur YAML (chaînes, nombres,
+ * booléens, listes, sections) sont pris en charge ; un fichier contenant autre chose n'est pas mis en cache.
+ */
+final class ConfigCache {
+
+    static final String EXTENSION = ".cache";
+
+    private static final int MAGIC = 0x4F574C43; // "OWLC"
+    private static final int VERSION = 1;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_INT = 2;
+    private static final byte TAG_LONG = 3;
+    private static final byte TAG_DOUBLE = 4;
+    private static final byte TAG_BOOLEAN = 5;
+    private static final byte TAG_LIST = 6;
+    private static final byte TAG_MAP = 7;
+    private static final byte TAG_SECTION = 8;
+
+    private final Logger logger;
+    private final long minSizeBytes;
+
+    ConfigCache(Logger logger, long minSizeBytes) {
+        this.logger = logger;
+        this.minSizeBytes = Math.max(0, minSizeBytes);
+    }
+
+    static File cacheFileFor(File yamlFile) {
+        return new File(yamlFile.getParentFile(), yamlFile.getName() + EXTENSION);
+    }
+
+    /**
+     * Charge un fichier YAML, depuis son cache s'il est à jour
+     * Sinon le YAML est analysé puis le cache réécrit
+     */
+    FileConfiguration load(File yamlFile) {
+        if (yamlFile.length() < minSizeBytes) {
+            return YamlConfiguration.loadConfiguration(yamlFile);
+        }
+
+        File cacheFile = cacheFileFor(yamlFile);
+        try {
+            // Taille et date identiques : le cache est utilisé sans relire le YAML
+            FileConfiguration cached = readCache(cacheFile, yamlFile.length(), yamlFile.lastModified(), null);
+            if (cached != null) {
+                return cached;
+            }
+
+            byte[] yaml = Files.readAllBytes(yamlFile.toPath());
+            long checksum = ConfigWriter.checksum(yaml);
+            // Fichier touché mais contenu inchangé : le cache reste valable
+            cached = readCache(cacheFile, yaml.length, -1, checksum);
+            if (cached != null) {
+                return cached;
+            }
+
+            FileConfiguration config = parse(yaml);
+            writeCache(cacheFile, config, yaml.length, yamlFile.lastModified(), checksum);
+            return config;
+        } catch (IOException | InvalidConfigurationException e) {
+            logger.log(Level.SEVERE, "Cannot load " + yamlFile, e);
+            return new YamlConfiguration();
+        }
+    }
+
+    /**
+     * Analyse un contenu YAML comme le fait YamlConfiguration.loadConfiguration
+     */
+    static FileConfiguration parse(byte[] yaml) throws InvalidConfigurationException {
+        FileConfiguration config = new YamlConfiguration();
+        config.loadFromString(new String(yaml, StandardCharsets.UTF_8));
+        return config;
+    }
+
+    /**
+     * Écrit le cache d'une configuration analysée
+     * @return false si la configuration contient des valeurs non prises en charge ou si l'écriture a échoué
+     */
+    boolean writeCache(File cacheFile, ConfigurationSection config, long yamlSize, long yamlModified, long checksum) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(yamlSize);
+            out.writeLong(yamlModified);
+            out.writeLong(checksum);
+            writeSection(out, config);
+        } catch (UnsupportedOperationException e) {
+            logger.fine("Config '" + cacheFile.getName() + "' not cached: " + e.getMessage());
+            return false;
+        } catch (IOException e) {
+            return false;
+        }
+
+        try {
+            // Le cache se reconstruit à partir du YAML : inutile de forcer l'écriture sur disque
+            ConfigWriter.writeAtomically(cacheFile.toPath(), bytes.toByteArray(), false);
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not write config cache '" + cacheFile.getName() + "'", e);
+            return false;
+        }
+    }
+
+    /**
+     * Relit un cache s'il correspond au YAML décrit
+     * @param yamlModified date attendue, ou -1 pour ne pas la vérifier
+     * @param checksum somme de contrôle attendue, ou null pour ne pas la vérifier
+     * @return La configuration reconstruite, ou null si le cache est absent, périmé ou illisible
+     */
+    FileConfiguration readCache(File cacheFile, long yamlSize, long yamlModified, Long checksum) {
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            long size = buffer.getLong();
+            long modified = buffer.getLong();
+            long sum = buffer.getLong();
+            if (size != yamlSize
+                    || (yamlModified >= 0 && modified != yamlModified)
+                    || (checksum != null && sum != checksum)) {
+                return null;
+            }
+
+            YamlConfiguration config = new YamlConfiguration();
+            readSection(buffer, config);
+            return config;
+        } catch (IOException | RuntimeException e) {
+            // Cache tronqué ou corrompu (y compris une valeur refusée par set()) : le YAML sera analysé
+            return null;
+        }
+    }
+
+    private static void writeSection(DataOutputStream out, ConfigurationSection section) throws IOException {
+        Map<String, Object> values = section.getValues(false);
+        out.writeInt(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (entry.getKey().indexOf('.') >= 0) {
+                // Relu via set(), le point serait pris pour un séparateur de chemin
+                throw new UnsupportedOperationException("key '" + entry.getKey() + "' contains a path separator");
+            }
+            writeString(out, entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(TAG_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TAG_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TAG_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof ConfigurationSection) {
+            out.writeByte(TAG_SECTION);
+            writeSection(out, (ConfigurationSection) value);
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(TAG_LIST);
+            out.writeInt(list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        } else if (value instanceof Map) {
+            // Élément d'une liste de tables YAML
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(TAG_MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeString(out, String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue());
+            }
+        } else {
+            throw new UnsupportedOperationException("unsupported value type " + value.getClass().getName());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void readSection(ByteBuffer buffer, ConfigurationSection section) {
+        int count = readCount(buffer);
+        for (int i = 0; i < count; i++) {
+            String key = readString(buffer);
+            byte tag = buffer.get();
+            if (tag == TAG_SECTION) {
+                readSection(buffer, section.createSection(key));
+            } else {
+                section.set(key, readValue(buffer, tag));
+            }
+        }
+    }
+
+    private static Object readValue(ByteBuffer buffer, byte tag) {
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_STRING:
+                return readString(buffer);
+            case TAG_INT:
+                return buffer.getInt();
+            case TAG_LONG:
+                return buffer.getLong();
+            case TAG_DOUBLE:
+                return buffer.getDouble();
+            case TAG_BOOLEAN:
+                return buffer.get() != 0;
+            case TAG_LIST: {
+                int size = readCount(buffer);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(buffer, buffer.get()));
+                }
+                return list;
+            }
+            case TAG_MAP: {
+                int size = readCount(buffer);
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    String key = readString(buffer);
+                    map.put(key, readValue(buffer, buffer.get()));
+                }
+                return map;
+            }
+            default:
+                throw new IllegalStateException("Unknown config cache tag " + tag);
+        }
+    }
+
+    /**
+     * Lit un nombre d'éléments ; chaque élément occupe au moins un octet, ce qui borne la valeur acceptée
+     * et évite d'allouer une liste démesurée à partir d'un cache corrompu
+     */
+    private static int readCount(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalStateException("Corrupted config cache element count");
+        }
+        return count;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalStateException("Corrupted config cache string");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,79 @@
+package fr.cylc.owlLib.utils;
+
+/**
+ * Événement publié sur OwlEventBus lorsqu'une clé d'un fichier de configuration change
+ * suite à une modification externe du fichier (voir ConfigManager, "persistence.hot-reload")
+ * Le topic est "config.&lt;fichier sans extension&gt;.&lt;chemin&gt;", par exemple
+ * "config.config.settings.default-timeout" : un listener enregistré sur "config.arenas.**"
+ * ne reçoit que les changements de arenas.yml.
+ */
+public final class ConfigChangeEvent {
+
+    private final String fileName;
+    private final String path;
+    private final Object oldValue;
+    private final Object newValue;
+
+    ConfigChangeEvent(String fileName, String path, Object oldValue, Object newValue) {
+        this.fileName = fileName;
+        this.path = path;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Topic de publication d'un changement
+     */
+    static String topicOf(String fileName, String path) {
+        int extension = fileName.lastIndexOf('.');
+        String baseName = extension > 0 ? fileName.substring(0, extension) : fileName;
+        return "config." + baseName.replace('/', '.') + "." + path;
+    }
+
+    /**
+     * Nom du fichier modifié, relatif au dossier du plugin (ex : "config.yml")
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Chemin de la clé modifiée (ex : "settings.default-timeout")
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Ancienne valeur, ou null si la clé vient d'être ajoutée
+     */
+    public Object getOldValue() {
+        return oldValue;
+    }
+
+    /**
+     * Nouvelle valeur, ou null si la clé a été supprimée
+     */
+    public Object getNewValue() {
+        return newValue;
+    }
+
+    /**
+     * Nouvelle valeur convertie dans le type demandé, ou null si elle est absente ou d'un autre type
+     */
+    public <T> T getNewValue(Class<T> type) {
+        return type.isInstance(newValue) ? type.cast(newValue) : null;
+    }
+
+    /**
+     * Vérifie si le changement concerne une clé typée de la configuration principale
+     */
+    public boolean isFor(ConfigKey<?> key) {
+        return ConfigManager.MAIN_CONFIG_FILE.equals(fileName) && key.getPath().equals(path);
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigChangeEvent[" + fileName + ":" + path + " " + oldValue + " -> " + newValue + "]";
+    }
+}
@@ -0,0 +1,104 @@
+package fr.cylc.owlLib.utils;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Clé typée de la configuration principale
+ * Chaque clé reçoit un indice à sa création ; ConfigManager résout toutes les clés une fois
+ * par chargement dans un instantané immuable, et get(key) n'est plus qu'une lecture de tableau.
+ * Les clés se déclarent en constantes :
+ * <pre>
+ * static final ConfigKey&lt;Integer&gt; TIMEOUT = ConfigKey.ofInt("settings.default-timeout", 5000);
+ * int timeout = configManager.get(TIMEOUT);
+ * </pre>
+ */
+public final class ConfigKey<T> {
+
+    private static final List<ConfigKey<?>> KEYS = new CopyOnWriteArrayList<>();
+
+    private final String path;
+    private final T defaultValue;
+    private final Reader<T> reader;
+    private final int index;
+
+    private ConfigKey(String path, T defaultValue, Reader<T> reader, int index) {
+        this.path = path;
+        this.defaultValue = defaultValue;
+        this.reader = reader;
+        this.index = index;
+    }
+
+    public static ConfigKey<Integer> ofInt(String path, int defaultValue) {
+        return create(path, defaultValue, ConfigurationSection::getInt);
+    }
+
+    public static ConfigKey<Long> ofLong(String path, long defaultValue) {
+        return create(path, defaultValue, ConfigurationSection::getLong);
+    }
+
+    public static ConfigKey<Double> ofDouble(String path, double defaultValue) {
+        return create(path, defaultValue, ConfigurationSection::getDouble);
+    }
+
+    public static ConfigKey<Boolean> ofBoolean(String path, boolean defaultValue) {
+        return create(path, defaultValue, ConfigurationSection::getBoolean);
+    }
+
+    public static ConfigKey<String> ofString(String path, String defaultValue) {
+        return create(path, defaultValue, ConfigurationSection::getString);
+    }
+
+    private static synchronized <T> ConfigKey<T> create(String path, T defaultValue, Reader<T> reader) {
+        ConfigKey<T> key = new ConfigKey<>(path, defaultValue, reader, KEYS.size());
+        KEYS.add(key);
+        return key;
+    }
+
+    /**
+     * Résout toutes les clés connues sur une configuration
+     * @return Les valeurs, rangées selon l'indice de chaque clé
+     */
+    static Object[] resolveAll(ConfigurationSection config) {
+        Object[] values = new Object[KEYS.size()];
+        for (ConfigKey<?> key : KEYS) {
+            if (key.index < values.length) {
+                values[key.index] = key.resolve(config);
+            }
+        }
+        return values;
+    }
+
+    private T resolve(ConfigurationSection config) {
+        return config == null ? defaultValue : reader.read(config, path, defaultValue);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public T getDefaultValue() {
+        return defaultValue;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    T cast(Object value) {
+        return (T) value;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigKey[" + path + "]";
+    }
+
+    @FunctionalInterface
+    private interface Reader<T> {
+        T read(ConfigurationSection config, String path, T defaultValue);
+    }
+}
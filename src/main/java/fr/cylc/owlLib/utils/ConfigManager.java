@@ -1,28 +1,119 @@
 package fr.cylc.owlLib.utils;
 
 import fr.cylc.owlLib.OwlLib;
+import fr.cylc.owlLib.core.OwlEventBus;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 
 /**
  * Gestionnaire de configuration pour OwlLib
+ *
+ * Les clés typées (ConfigKey) de la configuration principale sont résolues une fois par chargement
+ * dans un instantané immuable, remplacé atomiquement : get(key) se lit depuis n'importe quel thread
+ * sans parcours de chemin ni verrou. Les accesseurs par chemin (getIntValue, ...) restent disponibles
+ * pour les lectures ponctuelles.
+ *
+ * setValue n'écrit pas le fichier sur le champ : les modifications sont regroupées puis écrites
+ * en arrière-plan (voir ConfigWriter et la section "persistence"). shutdown() écrit tout ce qui reste.
+ *
+ * Avec "persistence.hot-reload", les fichiers chargés sont surveillés (voir ConfigWatcher) : un fichier
+ * modifié sur disque est relu seul, comparé clé par clé à la configuration en mémoire, et chaque clé
+ * modifiée donne lieu à un ConfigChangeEvent publié sur OwlEventBus depuis le thread principal.
+ *
+ * Les configurations personnalisées volumineuses sont relues depuis un cache binaire tant que
+ * leur YAML n'a pas changé (voir ConfigCache et "persistence.config-cache").
  */
 public class ConfigManager {
 
+    static final String MAIN_CONFIG_FILE = "config.yml";
+
     private final OwlLib plugin;
     private FileConfiguration mainConfig;
     private final Map<String, FileConfiguration> customConfigs;
+    private volatile Object[] snapshot;
+    private final ConfigWriter writer;
+    private final ConfigWatcher watcher;
+    private final ConfigCache cache;
+    private final LongAdder reloads = new LongAdder();
 
     public ConfigManager(OwlLib plugin) {
         this.plugin = plugin;
         this.mainConfig = plugin.getConfig();
-        this.customConfigs = new HashMap<>();
+        this.customConfigs = new ConcurrentHashMap<>();
+        this.snapshot = ConfigKey.resolveAll(mainConfig);
+        this.writer = new ConfigWriter(plugin.getLogger(),
+                mainConfig.getBoolean("persistence.write-behind", true),
+                mainConfig.getInt("persistence.window-ms", 1000),
+                ConfigWriter.FsyncPolicy.fromConfig(mainConfig.getString("persistence.fsync", "always")));
+        this.cache = mainConfig.getBoolean("persistence.config-cache", true)
+                ? new ConfigCache(plugin.getLogger(), mainConfig.getLong("persistence.config-cache-min-size-kb", 256) * 1024)
+                : null;
+        this.watcher = mainConfig.getBoolean("persistence.hot-reload", true)
+                ? createWatcher(mainConfig.getInt("persistence.hot-reload-debounce-ms", 250))
+                : null;
+    }
+
+    private ConfigWatcher createWatcher(int debounceMillis) {
+        try {
+            ConfigWatcher configWatcher = new ConfigWatcher(plugin.getLogger(), debounceMillis, this::onFileChanged);
+            configWatcher.watch(new File(plugin.getDataFolder(), MAIN_CONFIG_FILE).toPath());
+            configWatcher.start();
+            return configWatcher;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not start config hot reload", e);
+            return null;
+        }
+    }
+
+    /**
+     * Lit une clé typée dans l'instantané de la configuration principale
+     */
+    public <T> T get(ConfigKey<T> key) {
+        Object[] values = snapshot;
+        int index = key.getIndex();
+        if (index >= values.length) {
+            // Clé créée après le dernier chargement : l'instantané est complété une fois
+            values = refreshSnapshot(index);
+        }
+        return key.cast(values[index]);
+    }
+
+    private synchronized Object[] refreshSnapshot(int index) {
+        Object[] values = snapshot;
+        if (index >= values.length) {
+            values = ConfigKey.resolveAll(mainConfig);
+            snapshot = values;
+        }
+        return values;
+    }
+
+    /**
+     * Reconstruit l'instantané et les niveaux des loggers après un changement de la configuration principale
+     */
+    private void refreshMainConfig(FileConfiguration config) {
+        synchronized (this) {
+            snapshot = ConfigKey.resolveAll(config);
+        }
+        LoggerFactory.refreshLevels();
     }
 
     /**
@@ -36,8 +127,11 @@ public class ConfigManager {
             plugin.saveResource(fileName, false);
         }
 
-        FileConfiguration config = YamlConfiguration.loadConfiguration(configFile);
+        FileConfiguration config = cache != null ? cache.load(configFile) : YamlConfiguration.loadConfiguration(configFile);
         customConfigs.put(fileName, config);
+        if (watcher != null) {
+            watcher.watch(configFile.toPath());
+        }
         return config;
     }
 
@@ -50,20 +144,19 @@ public class ConfigManager {
             return;
         }
 
-        try {
-            File configFile = new File(plugin.getDataFolder(), fileName);
-            customConfigs.get(fileName).save(configFile);
-        } catch (IOException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not save config '" + fileName + "'", e);
-        }
+        writer.write(new File(plugin.getDataFolder(), fileName), customConfigs.get(fileName));
     }
 
     /**
      * Recharge la configuration principale
      */
     public void reloadMainConfig() {
+        // Les modifications en attente seraient écrasées par le rechargement
+        writer.flushAll();
         plugin.reloadConfig();
         this.mainConfig = plugin.getConfig();
+        refreshMainConfig(mainConfig);
+        reloads.increment();
     }
 
     /**
@@ -73,6 +166,13 @@ public class ConfigManager {
         return customConfigs.get(fileName);
     }
 
+    /**
+     * Noms des configurations personnalisées chargées
+     */
+    public Set<String> getCustomConfigNames() {
+        return Collections.unmodifiableSet(customConfigs.keySet());
+    }
+
     /**
      * Récupère la configuration principale
      */
@@ -121,10 +221,15 @@ public class ConfigManager {
 
     /**
      * Définit une valeur dans la configuration principale
+     * Le fichier est écrit en arrière-plan, avec les autres modifications de la même fenêtre
      */
     public void setValue(String path, Object value) {
-        mainConfig.set(path, value);
-        plugin.saveConfig();
+        FileConfiguration config = mainConfig;
+        synchronized (config) {
+            config.set(path, value);
+        }
+        refreshMainConfig(config);
+        writer.markDirty(new File(plugin.getDataFolder(), MAIN_CONFIG_FILE), config);
     }
 
     /**
@@ -137,7 +242,274 @@ public class ConfigManager {
             return;
         }
 
-        config.set(path, value);
-        saveCustomConfig(fileName);
+        synchronized (config) {
+            config.set(path, value);
+        }
+        writer.markDirty(new File(plugin.getDataFolder(), fileName), config);
+    }
+
+    /**
+     * Écrit immédiatement toutes les configurations modifiées
+     */
+    public void flush() {
+        writer.flushAll();
+    }
+
+    /**
+     * Écrit les configurations modifiées et arrête l'écriture en arrière-plan
+     */
+    public void shutdown() {
+        if (watcher != null) {
+            watcher.close();
+        }
+        writer.shutdown();
+    }
+
+    /**
+     * Nombre de rechargements depuis le démarrage : reloadMainConfig et fichiers modifiés sur disque
+     */
+    public long getReloadCount() {
+        return reloads.sum();
+    }
+
+    /**
+     * Durées des écritures de fichiers de configuration réussies
+     */
+    public LatencyHistogram.Snapshot getWriteLatency() {
+        return writer.getWriteLatency();
+    }
+
+    /**
+     * Nombre d'écritures de fichiers de configuration qui ont échoué
+     */
+    public long getWriteFailureCount() {
+        return writer.getFailureCount();
+    }
+
+    /**
+     * Compare le chargement d'un fichier par l'analyseur YAML et par le cache binaire
+     * La durée du premier chargement de chaque méthode (code pas encore compilé par le JIT, comme au
+     * démarrage du serveur) est retenue, puis chaque méthode est exécutée "iterations" fois et la meilleure durée
+     * est retenue. Seules les configurations chargées sont acceptées ; leur cache est réécrit. À exécuter hors du thread principal
+     * pour les gros fichiers.
+     */
+    public LoadBenchmark benchmarkLoad(String fileName, int iterations) throws IOException {
+        if (!customConfigs.containsKey(fileName)) {
+            throw new IOException("Config '" + fileName + "' is not loaded");
+        }
+        File yamlFile = new File(plugin.getDataFolder(), fileName);
+        File cacheFile = ConfigCache.cacheFileFor(yamlFile);
+        ConfigCache benchmarkCache = cache != null ? cache : new ConfigCache(plugin.getLogger(), 0);
+
+        long start = System.nanoTime();
+        byte[] yaml = Files.readAllBytes(yamlFile.toPath());
+        FileConfiguration parsed;
+        try {
+            parsed = ConfigCache.parse(yaml);
+        } catch (InvalidConfigurationException e) {
+            throw new IOException("Invalid YAML in '" + fileName + "'", e);
+        }
+        long firstYaml = System.nanoTime() - start;
+
+        boolean cacheable = benchmarkCache.writeCache(cacheFile, parsed, yaml.length, yamlFile.lastModified(),
+                ConfigWriter.checksum(yaml));
+        long firstCache = -1;
+        if (cacheable) {
+            start = System.nanoTime();
+            benchmarkCache.readCache(cacheFile, yaml.length, -1, null);
+            firstCache = System.nanoTime() - start;
+        }
+
+        long bestYaml = Long.MAX_VALUE;
+        long bestCache = Long.MAX_VALUE;
+        for (int i = 0; i < Math.max(1, iterations); i++) {
+            start = System.nanoTime();
+            try {
+                ConfigCache.parse(Files.readAllBytes(yamlFile.toPath()));
+            } catch (InvalidConfigurationException e) {
+                throw new IOException("Invalid YAML in '" + fileName + "'", e);
+            }
+            bestYaml = Math.min(bestYaml, System.nanoTime() - start);
+
+            if (cacheable) {
+                start = System.nanoTime();
+                benchmarkCache.readCache(cacheFile, yaml.length, -1, null);
+                bestCache = Math.min(bestCache, System.nanoTime() - start);
+            }
+        }
+        return new LoadBenchmark(fileName, yaml.length, firstYaml, bestYaml, firstCache, cacheable ? bestCache : -1);
+    }
+
+    /**
+     * Appelé par ConfigWatcher, sur son thread, lorsqu'un fichier surveillé a changé sur disque
+     * Le fichier est relu et analysé ici ; la fusion dans la configuration en mémoire se fait
+     * sur le thread principal.
+     */
+    private void onFileChanged(Path file) {
+        String fileName = plugin.getDataFolder().toPath().toAbsolutePath().normalize()
+                .relativize(file).toString().replace(File.separatorChar, '/');
+        if (!MAIN_CONFIG_FILE.equals(fileName) && !customConfigs.containsKey(fileName)) {
+            return;
+        }
+
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (IOException e) {
+            // Fichier supprimé ou en cours de remplacement : un nouvel événement suivra
+            return;
+        }
+        if (writer.isOwnWrite(file, content)) {
+            return;
+        }
+
+        FileConfiguration parsed = new YamlConfiguration();
+        try {
+            parsed.loadFromString(new String(content, StandardCharsets.UTF_8));
+        } catch (InvalidConfigurationException e) {
+            plugin.getLogger().warning("Ignoring changes to config '" + fileName + "': " + e.getMessage());
+            return;
+        }
+
+        Bukkit.getScheduler().runTask(plugin, () -> applyChanges(fileName, parsed));
+    }
+
+    /**
+     * Fusionne une version relue d'un fichier dans la configuration en mémoire et publie les différences
+     * Ignoré si le fichier a des modifications pas encore écrites par l'écriture différée
+     */
+    private void applyChanges(String fileName, FileConfiguration parsed) {
+        boolean main = MAIN_CONFIG_FILE.equals(fileName);
+        FileConfiguration config = main ? mainConfig : customConfigs.get(fileName);
+        if (config == null) {
+            return;
+        }
+        if (writer.isPending(new File(plugin.getDataFolder(), fileName))) {
+            // Le fichier relu ne contient pas les modifications en attente : les fusionner les annulerait,
+            // et l'écriture différée va de toute façon remplacer le fichier
+            plugin.getLogger().warning("Ignoring external changes to config '" + fileName
+                    + "': it has unsaved changes that will overwrite the file");
+            return;
+        }
+
+        List<ConfigChangeEvent> changes = new ArrayList<>();
+        synchronized (config) {
+            Map<String, Object> oldValues = leafValues(config);
+            Map<String, Object> newValues = leafValues(parsed);
+
+            for (Map.Entry<String, Object> entry : newValues.entrySet()) {
+                Object oldValue = oldValues.get(entry.getKey());
+                if (!Objects.equals(oldValue, entry.getValue())) {
+                    config.set(entry.getKey(), entry.getValue());
+                    changes.add(new ConfigChangeEvent(fileName, entry.getKey(), oldValue, entry.getValue()));
+                }
+            }
+            for (Map.Entry<String, Object> entry : oldValues.entrySet()) {
+                if (!newValues.containsKey(entry.getKey())) {
+                    config.set(entry.getKey(), null);
+                    changes.add(new ConfigChangeEvent(fileName, entry.getKey(), entry.getValue(), null));
+                }
+            }
+        }
+
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (main) {
+            refreshMainConfig(config);
+        }
+        reloads.increment();
+        plugin.getLogger().info("Reloaded config '" + fileName + "' (" + changes.size() + " changed keys)");
+
+        if (OwlEventBus.isInitialized()) {
+            for (ConfigChangeEvent change : changes) {
+                OwlEventBus.publish(ConfigChangeEvent.topicOf(fileName, change.getPath()), change);
+            }
+        }
+    }
+
+    /**
+     * Valeurs feuilles d'une configuration, indexées par chemin complet (les sections sont omises)
+     */
+    private static Map<String, Object> leafValues(ConfigurationSection config) {
+        Map<String, Object> leaves = new HashMap<>();
+        for (Map.Entry<String, Object> entry : config.getValues(true).entrySet()) {
+            if (!(entry.getValue() instanceof ConfigurationSection)) {
+                leaves.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return leaves;
+    }
+
+    /**
+     * Résultat de benchmarkLoad
+     */
+    public static final class LoadBenchmark {
+
+        private final String fileName;
+        private final long sizeBytes;
+        private final long firstYamlNanos;
+        private final long yamlNanos;
+        private final long firstCacheNanos;
+        private final long cacheNanos;
+
+        LoadBenchmark(String fileName, long sizeBytes, long firstYamlNanos, long yamlNanos,
+                      long firstCacheNanos, long cacheNanos) {
+            this.fileName = fileName;
+            this.sizeBytes = sizeBytes;
+            this.firstYamlNanos = firstYamlNanos;
+            this.yamlNanos = yamlNanos;
+            this.firstCacheNanos = firstCacheNanos;
+            this.cacheNanos = cacheNanos;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public long getSizeBytes() {
+            return sizeBytes;
+        }
+
+        /**
+         * Durée de la première lecture et analyse du YAML
+         */
+        public long getFirstYamlNanos() {
+            return firstYamlNanos;
+        }
+
+        /**
+         * Meilleure durée de lecture et d'analyse du YAML, une fois le code compilé par le JIT
+         */
+        public long getYamlNanos() {
+            return yamlNanos;
+        }
+
+        /**
+         * Durée du premier chargement depuis le cache, ou -1 si le fichier ne peut pas être mis en cache
+         */
+        public long getFirstCacheNanos() {
+            return firstCacheNanos;
+        }
+
+        /**
+         * Meilleure durée de chargement depuis le cache, une fois le code compilé par le JIT,
+         * ou -1 si le fichier ne peut pas être mis en cache
+         */
+        public long getCacheNanos() {
+            return cacheNanos;
+        }
+
+        public String format() {
+            String yaml = String.format("first %.2fms, best %.2fms", firstYamlNanos / 1_000_000.0, yamlNanos / 1_000_000.0);
+            if (cacheNanos < 0) {
+                return fileName + " (" + sizeBytes / 1024 + " KiB): yaml " + yaml + ", not cacheable";
+            }
+            return fileName + " (" + sizeBytes / 1024 + " KiB): yaml " + yaml
+                    + "; cache " + String.format("first %.2fms, best %.2fms", firstCacheNanos / 1_000_000.0,
+                    cacheNanos / 1_000_000.0)
+                    + String.format(" (x%.1f first, x%.1f best)", (double) firstYamlNanos / Math.max(1, firstCacheNanos),
+                    (double) yamlNanos / Math.max(1, cacheNanos));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,156 @@
+package fr.cylc.owlLib.utils;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Surveillance des fichiers de configuration via le WatchService du système
+ * Seuls les dossiers contenant un fichier surveillé sont enregistrés. Les rafales d'événements
+ * (éditeurs qui écrivent en plusieurs fois, renommage atomique de ConfigWriter) sont regroupées :
+ * un fichier n'est signalé qu'une fois "debounce" millisecondes écoulées sans nouvel événement.
+ * Le callback est appelé sur le thread de surveillance.
+ */
+final class ConfigWatcher {
+
+    private final Logger logger;
+    private final long debounceNanos;
+    private final Consumer<Path> onChange;
+    private final WatchService watchService;
+    private final Set<Path> files = ConcurrentHashMap.newKeySet();
+    private final Map<Path, WatchKey> directories = new ConcurrentHashMap<>();
+    private final Thread thread;
+
+    ConfigWatcher(Logger logger, long debounceMillis, Consumer<Path> onChange) throws IOException {
+        this.logger = logger;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, debounceMillis));
+        this.onChange = onChange;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.thread = new Thread(this::run, "OwlLib-ConfigWatcher");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Ajoute un fichier à la surveillance, en enregistrant son dossier si nécessaire
+     */
+    void watch(Path file) {
+        Path target = file.toAbsolutePath().normalize();
+        Path directory = target.getParent();
+        if (directory == null) {
+            return;
+        }
+
+        files.add(target);
+        directories.computeIfAbsent(directory, dir -> {
+            try {
+                return dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+            } catch (IOException | ClosedWatchServiceException e) {
+                logger.log(Level.WARNING, "Could not watch config directory '" + dir + "'", e);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Arrête la surveillance ; les changements en attente de regroupement sont abandonnés
+     */
+    void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not close config watcher", e);
+        }
+        thread.interrupt();
+    }
+
+    private void run() {
+        // Fichier modifié -> échéance (System.nanoTime) à laquelle le signaler
+        Map<Path, Long> pending = new HashMap<>();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = pending.isEmpty()
+                        ? watchService.take()
+                        : watchService.poll(Math.max(0, nextDeadline(pending) - System.nanoTime()), TimeUnit.NANOSECONDS);
+
+                if (key != null) {
+                    collect(key, pending);
+                }
+                fireDue(pending);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Arrêt demandé par close()
+        }
+    }
+
+    private void collect(WatchKey key, Map<Path, Long> pending) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Des événements ont été perdus : tous les fichiers du dossier sont relus
+                for (Path file : files) {
+                    if (directory.equals(file.getParent())) {
+                        pending.put(file, System.nanoTime() + debounceNanos);
+                    }
+                }
+                continue;
+            }
+
+            Path file = directory.resolve((Path) event.context());
+            if (files.contains(file)) {
+                pending.put(file, System.nanoTime() + debounceNanos);
+            }
+        }
+
+        if (!key.reset()) {
+            directories.remove(directory);
+        }
+    }
+
+    private void fireDue(Map<Path, Long> pending) {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Path, Long>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, Long> entry = iterator.next();
+            if (entry.getValue() - now > 0) {
+                continue;
+            }
+            iterator.remove();
+            try {
+                onChange.accept(entry.getKey());
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Could not reload config '" + entry.getKey().getFileName() + "'", e);
+            }
+        }
+    }
+
+    private static long nextDeadline(Map<Path, Long> pending) {
+        long next = Long.MAX_VALUE;
+        boolean first = true;
+        for (long deadline : pending.values()) {
+            if (first || deadline - next < 0) {
+                next = deadline;
+                first = false;
+            }
+        }
+        return next;
+    }
+}
@@ -0,0 +1,249 @@
+package fr.cylc.owlLib.utils;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Écriture différée des fichiers de configuration
+ * Un fichier modifié est marqué comme sale ; toutes les modifications faites pendant la fenêtre
+ * ("persistence.window-ms") sont écrites en une seule fois par un thread dédié. L'écriture passe
+ * par un fichier temporaire renommé atomiquement, si bien qu'un arrêt brutal laisse soit l'ancien
+ * fichier, soit le nouveau, jamais un fichier tronqué.
+ * La sérialisation se fait sous le verrou de la FileConfiguration : les modifications concurrentes
+ * doivent prendre le même verrou (ce que fait ConfigManager.setValue).
+ * Les écritures d'un même fichier (thread d'écriture, write et flushAll sur le thread principal) sont
+ * sérialisées par un verrou propre au fichier, qui couvre aussi la sérialisation : une écriture ne peut
+ * pas remplacer un contenu plus récent par un instantané plus ancien.
+ * La somme de contrôle du dernier contenu écrit est conservée par fichier, pour que la surveillance
+ * des fichiers (ConfigWatcher) ne recharge pas nos propres écritures.
+ */
+final class ConfigWriter {
+
+    private final Logger logger;
+    private final long windowMillis;
+    private final FsyncPolicy fsyncPolicy;
+    private final Map<File, FileConfiguration> dirty = new ConcurrentHashMap<>();
+    private final Map<Path, Long> lastWritten = new ConcurrentHashMap<>();
+    private final Map<Path, Object> fileLocks = new ConcurrentHashMap<>();
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    private final ScheduledExecutorService executor;
+
+    ConfigWriter(Logger logger, boolean writeBehind, long windowMillis, FsyncPolicy fsyncPolicy) {
+        this.logger = logger;
+        this.windowMillis = Math.max(0, windowMillis);
+        this.fsyncPolicy = fsyncPolicy;
+        this.executor = writeBehind
+                ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "OwlLib-ConfigWriter");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    /**
+     * Planifie l'écriture d'une configuration ; écrit immédiatement si l'écriture différée est désactivée
+     */
+    void markDirty(File file, FileConfiguration config) {
+        if (executor == null) {
+            write(file, config);
+            return;
+        }
+        // Seule la première modification de la fenêtre planifie une écriture
+        if (dirty.put(file, config) == null) {
+            executor.schedule(() -> flush(file), windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Écrit immédiatement une configuration, en annulant son écriture différée éventuelle
+     * @return false si l'écriture a échoué
+     */
+    boolean write(File file, FileConfiguration config) {
+        dirty.remove(file);
+        Path path = normalize(file.toPath());
+        synchronized (fileLocks.computeIfAbsent(path, key -> new Object())) {
+            String content;
+            synchronized (config) {
+                content = config.saveToString();
+            }
+
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            // Enregistrée avant le renommage : l'événement de modification peut arriver aussitôt après
+            lastWritten.put(path, checksum(bytes));
+            long start = System.nanoTime();
+            try {
+                writeAtomically(path, bytes, fsyncPolicy == FsyncPolicy.ALWAYS);
+                writeLatency.record(System.nanoTime() - start);
+                return true;
+            } catch (IOException e) {
+                failures.increment();
+                lastWritten.remove(path);
+                logger.log(Level.SEVERE, "Could not save config '" + file.getName() + "'", e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Écrit toutes les configurations en attente sur le thread appelant
+     */
+    void flushAll() {
+        List<File> files = new ArrayList<>(dirty.keySet());
+        for (File file : files) {
+            flush(file);
+        }
+    }
+
+    /**
+     * Écrit les configurations en attente puis arrête le thread d'écriture
+     */
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushAll();
+    }
+
+    /**
+     * Durées des écritures réussies
+     */
+    LatencyHistogram.Snapshot getWriteLatency() {
+        return writeLatency.snapshot();
+    }
+
+    long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * Vérifie si une configuration a des modifications pas encore écrites
+     */
+    boolean isPending(File file) {
+        return dirty.containsKey(file);
+    }
+
+    /**
+     * Vérifie si un contenu lu sur disque est celui de notre dernière écriture du fichier
+     */
+    boolean isOwnWrite(Path file, byte[] content) {
+        Long written = lastWritten.get(normalize(file));
+        return written != null && written == checksum(content);
+    }
+
+    private static Path normalize(Path file) {
+        return file.toAbsolutePath().normalize();
+    }
+
+    static long checksum(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        return crc.getValue();
+    }
+
+    private void flush(File file) {
+        FileConfiguration config = dirty.get(file);
+        if (config != null) {
+            write(file, config);
+        }
+    }
+
+    /**
+     * Écrit un fichier via un fichier temporaire voisin, de nom unique, puis un renommage atomique
+     * @param fsync true pour forcer l'écriture sur disque avant le renommage, puis le renommage lui-même
+     */
+    static void writeAtomically(Path target, byte[] content, boolean fsync) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+
+        Path temp = Files.createTempFile(parent, target.getFileName() + ".", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (fsync) {
+                    channel.force(true);
+                }
+            }
+
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        if (fsync) {
+            forceDirectory(parent);
+        }
+    }
+
+    /**
+     * Force l'entrée du dossier sur disque, pour qu'un renommage survive à une coupure de courant
+     * Sans effet là où un dossier ne peut pas être ouvert (Windows).
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException ignored) {
+            // Le renommage est fait ; seule sa durabilité en cas de coupure n'est pas garantie
+        }
+    }
+
+    /**
+     * Politique de synchronisation disque avant le renommage
+     */
+    enum FsyncPolicy {
+        /**
+         * Contenu forcé sur disque avant chaque renommage : le fichier survit à une coupure de courant
+         */
+        ALWAYS,
+        /**
+         * Laisse le système vider ses tampons : plus rapide, protège seulement contre l'arrêt du processus
+         */
+        NEVER;
+
+        static FsyncPolicy fromConfig(String value) {
+            if (value != null) {
+                try {
+                    return valueOf(value.trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException ignored) {
+                    // Valeur inconnue : politique par défaut
+                }
+            }
+            return ALWAYS;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package fr.cylc.owlLib.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de latences log-linéaire, à la manière de HdrHistogram
+ * Chaque puissance de deux est découpée en 8 sous-intervalles : l'erreur relative reste
+ * inférieure à 12,5 % sur toute la plage, pour une taille fixe de ~500 compteurs.
+ * L'enregistrement est sans verrou et sans allocation.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Enregistre une durée en nanosecondes ; les valeurs négatives comptent pour 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Remet l'histogramme à zéro ; les enregistrements concurrents peuvent être partiellement perdus
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Renvoie une copie figée de l'histogramme
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = buckets.get(i);
+        }
+        return new Snapshot(copy, count.sum(), sum.sum(), max.get());
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa;
+    }
+
+    /**
+     * Valeur la plus haute couverte par un compteur
+     */
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long mantissa = SUB_BUCKETS + (index % SUB_BUCKETS);
+        long lower = mantissa << (exponent - SUB_BUCKET_BITS);
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Copie figée d'un histogramme
+     */
+    public static final class Snapshot {
+
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] buckets, long count, long sum, long max) {
+            this.buckets = buckets;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Somme des valeurs enregistrées, en nanosecondes
+         */
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Renvoie la distribution réunissant les enregistrements des deux copies
+         */
+        public Snapshot merge(Snapshot other) {
+            long[] merged = new long[buckets.length];
+            for (int i = 0; i < merged.length; i++) {
+                merged[i] = buckets[i] + other.buckets[i];
+            }
+            return new Snapshot(merged, count + other.count, sum + other.sum, Math.max(max, other.max));
+        }
+
+        /**
+         * Renvoie la valeur sous laquelle se trouve la proportion demandée des enregistrements
+         * @param quantile Entre 0 et 1 (ex : 0.99)
+         */
+        public long getValueAtQuantile(double quantile) {
+            long total = 0;
+            for (long bucket : buckets) {
+                total += bucket;
+            }
+            if (total == 0) {
+                return 0;
+            }
+
+            long target = (long) Math.ceil(Math.min(1.0, Math.max(0.0, quantile)) * total);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= Math.max(1, target)) {
+                    return Math.min(upperBoundOf(i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Formate la distribution en millisecondes (ex : "n=120 mean=0.42ms p50=0.30ms p99=2.10ms max=3.05ms")
+         */
+        public String format() {
+            return "n=" + count
+                    + " mean=" + millis((long) getMean())
+                    + " p50=" + millis(getValueAtQuantile(0.50))
+                    + " p99=" + millis(getValueAtQuantile(0.99))
+                    + " max=" + millis(max);
+        }
+
+        private static String millis(long nanos) {
+            return String.format("%.2fms", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package fr.cylc.owlLib.utils;
+
+import org.bukkit.Bukkit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Écriture asynchrone des messages des OwlLogger
+ * Les messages sont déposés dans les slots préalloués d'un OwlRingBuffer ; un thread dédié
+ * les met en forme puis les transmet au logger du plugin (console et fichiers du serveur) et, s'il est
+ * activé, au journal structuré (MappedLogAppender).
+ * L'appelant ne copie que des références vers des valeurs immuables (chaînes, types primitifs) ; les autres
+ * arguments sont convertis en chaîne sur le thread appelant, pour que le message décrive leur état au moment de l'appel.
+ * La construction du message et les entrées-sorties ne coûtent plus rien au thread principal.
+ * Si le buffer est plein, un appelant autre que le thread principal attend qu'un slot se libère pour garder
+ * l'ordre des messages, et n'écrit lui-même le message que si le thread d'écriture n'avance plus.
+ * Le thread principal n'attend jamais : il écrit aussitôt le message, qui peut alors précéder des messages en file.
+ */
+final class LogPipeline {
+
+    private static final long DRAIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FULL_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final OwlRingBuffer<LogSlot> ringBuffer;
+    // Utilisé uniquement par le thread consommateur
+    private final StringBuilder builder = new StringBuilder(256);
+    private volatile Thread writerThread;
+    private volatile boolean closed;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    LogPipeline(int capacity, Logger errorLogger) {
+        this.ringBuffer = new OwlRingBuffer<>(capacity, 1, LogSlot::new, OwlRingBuffer.WaitStrategy.PARKING);
+
+        OwlRingBuffer.BatchHandler<LogSlot>[] handlers = new OwlRingBuffer.BatchHandler[]{
+                new OwlRingBuffer.BatchHandler<LogSlot>() {
+                    @Override
+                    public void onEvent(LogSlot slot, long sequence, boolean endOfBatch) {
+                        try {
+                            write(slot);
+                        } finally {
+                            slot.clear();
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        errorLogger.log(Level.SEVERE, "Error in log writer", throwable);
+                    }
+                }
+        };
+        ringBuffer.start(runnable -> {
+            Thread thread = new Thread(runnable, "OwlLib-LogWriter");
+            thread.setDaemon(true);
+            writerThread = thread;
+            return thread;
+        }, handlers);
+    }
+
+    /**
+     * Dépose un message dans le buffer, en attendant qu'un slot se libère s'il est plein
+     * @return false si le pipeline est arrêté, si l'appelant est le thread d'écriture, si le buffer est plein
+     * et l'appelant le thread principal, ou si le buffer est resté plein trop longtemps : l'appelant doit alors écrire le message lui-même
+     */
+    boolean offer(Logger logger, String source, Level level, String prefix, String template,
+                  int argCount, Object arg1, Object arg2, Object[] args, Throwable thrown) {
+        long sequence = claim();
+        if (sequence < 0) {
+            return false;
+        }
+
+        LogSlot slot = ringBuffer.get(sequence);
+        slot.timestamp = System.currentTimeMillis();
+        slot.thread = Thread.currentThread().getName();
+        slot.logger = logger;
+        slot.source = source;
+        slot.level = level;
+        slot.prefix = prefix;
+        slot.template = template;
+        slot.argCount = argCount;
+        slot.arg1 = snapshot(arg1);
+        slot.arg2 = snapshot(arg2);
+        slot.args = snapshot(args);
+        slot.thrown = thrown;
+        ringBuffer.publish(sequence);
+        return true;
+    }
+
+    private long claim() {
+        long sequence = ringBuffer.tryNext();
+        if (sequence >= 0 || closed || Thread.currentThread() == writerThread || Bukkit.isPrimaryThread()) {
+            // Le thread d'écriture ne peut pas attendre un slot qu'il est le seul à libérer,
+            // et le thread principal ne doit jamais attendre : ils écrivent eux-mêmes le message
+            return sequence;
+        }
+
+        long deadline = System.nanoTime() + FULL_WAIT_NANOS;
+        while (!closed && System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(FULL_POLL_NANOS);
+            sequence = ringBuffer.tryNext();
+            if (sequence >= 0) {
+                return sequence;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Garde les valeurs immuables telles quelles et convertit les autres en chaîne sur le thread appelant
+     */
+    private static Object snapshot(Object arg) {
+        if (arg == null || arg instanceof String || arg instanceof Integer || arg instanceof Long
+                || arg instanceof Double || arg instanceof Boolean || arg instanceof Float || arg instanceof Character
+                || arg instanceof Short || arg instanceof Byte) {
+            return arg;
+        }
+        return String.valueOf(arg);
+    }
+
+    private static Object[] snapshot(Object[] args) {
+        if (args == null) {
+            return null;
+        }
+        // Le tableau peut appartenir à l'appelant : il est copié plutôt que modifié
+        Object[] copy = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            copy[i] = snapshot(args[i]);
+        }
+        return copy;
+    }
+
+    /**
+     * Attend que les messages déposés soient écrits puis arrête le thread d'écriture
+     */
+    void shutdown(long timeoutMillis) {
+        closed = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (ringBuffer.getPendingCount() > 0 && System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(DRAIN_POLL_NANOS);
+        }
+        ringBuffer.halt();
+    }
+
+    private void write(LogSlot slot) {
+        builder.setLength(0);
+        appendFormatted(builder, slot.template, slot.argCount, slot.arg1, slot.arg2, slot.args);
+        LoggerFactory.emit(slot.logger, slot.source, slot.thread, slot.level, slot.prefix, builder.toString(),
+                slot.thrown, slot.timestamp);
+    }
+
+    /**
+     * Remplace chaque "{}" du modèle par l'argument suivant
+     * Les arguments sont passés un à un (arg1, arg2) ou dans un tableau au-delà de deux
+     */
+    static void appendFormatted(StringBuilder out, String template, int argCount, Object arg1, Object arg2, Object[] args) {
+        if (argCount == 0) {
+            out.append(template);
+            return;
+        }
+
+        int argIndex = 0;
+        int start = 0;
+        int placeholder;
+        while (argIndex < argCount && (placeholder = template.indexOf("{}", start)) >= 0) {
+            out.append(template, start, placeholder);
+            Object arg = args != null ? args[argIndex] : (argIndex == 0 ? arg1 : arg2);
+            out.append(arg);
+            argIndex++;
+            start = placeholder + 2;
+        }
+        out.append(template, start, template.length());
+    }
+
+    /**
+     * Slot réutilisable du ring buffer
+     */
+    private static final class LogSlot {
+        private long timestamp;
+        private String thread;
+        private Logger logger;
+        private String source;
+        private Level level;
+        private String prefix;
+        private String template;
+        private int argCount;
+        private Object arg1;
+        private Object arg2;
+        private Object[] args;
+        private Throwable thrown;
+
+        private void clear() {
+            thread = null;
+            logger = null;
+            template = null;
+            arg1 = null;
+            arg2 = null;
+            args = null;
+            thrown = null;
+        }
+    }
+}
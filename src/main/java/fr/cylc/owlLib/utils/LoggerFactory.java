@@ -1,17 +1,51 @@
 package fr.cylc.owlLib.utils;
 
 import fr.cylc.owlLib.OwlLib;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
 
-import java.util.HashMap;
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 
 /**
  * Factory pour créer des instances de logger
+ *
+ * Une fois initialisée, les messages sont écrits par un thread dédié (voir LogPipeline et la section
+ * "logging") : logger depuis le thread principal ne coûte plus qu'une copie dans un slot préalloué.
+ * Le niveau de chaque logger ("logging.level", "logging.levels.&lt;composant&gt;") est mis en cache
+ * et recalculé à chaque changement de la configuration principale.
+ *
+ * Pour les messages susceptibles de se répéter en boucle (échec d'un listener à chaque événement...),
+ * OwlLogger.throttled(clé) limite le débit par clé et regroupe les messages identiques ; les messages
+ * de debug peuvent être échantillonnés ("logging.debug-sample-rate"). Les messages écartés sont comptés
+ * (getSuppressedCount) et résumés périodiquement dans le journal.
+ *
+ * Avec "logging.structured.enabled", tous les messages des OwlLogger sont aussi écrits en JSON lines
+ * dans des segments mappés en mémoire sous "logs/" (voir MappedLogAppender) ; "logging.structured.console"
+ * à false réserve alors la console aux avertissements et erreurs.
  */
 public class LoggerFactory {
 
-    private static final Map<String, OwlLogger> loggers = new HashMap<>();
+    private static final ConfigKey<Boolean> DEBUG = ConfigKey.ofBoolean("debug", false);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+    private static final long SUMMARY_PERIOD_TICKS = 20L;
+
+    private static final Map<String, OwlLogger> loggers = new ConcurrentHashMap<>();
+    private static volatile LogPipeline pipeline;
+    private static volatile MappedLogAppender appender;
+    private static volatile boolean consoleEnabled = true;
+    private static BukkitTask summaryTask;
 
     private LoggerFactory() {
         // Constructeur privé pour empêcher l'instanciation
@@ -24,42 +58,477 @@ public class LoggerFactory {
         return loggers.computeIfAbsent(componentName, name -> new OwlLogger(name));
     }
 
+    /**
+     * Démarre l'écriture asynchrone si "logging.async" est activé
+     * Avant l'initialisation, et après shutdown(), les messages sont écrits sur le thread appelant.
+     */
+    public static synchronized void initialize() {
+        ConfigManager config = OwlLib.getInstance().getConfigManager();
+        if (appender == null && config.getBooleanValue("logging.structured.enabled", false)) {
+            try {
+                appender = new MappedLogAppender(new File(OwlLib.getInstance().getDataFolder(), "logs").toPath(),
+                        config.getIntValue("logging.structured.segment-size-mb", 16) * 1024L * 1024L,
+                        config.getIntValue("logging.structured.max-segments", 8),
+                        config.getIntValue("logging.structured.flush-interval-ms", 1000));
+                consoleEnabled = config.getBooleanValue("logging.structured.console", true);
+            } catch (IOException e) {
+                OwlLib.getInstance().getLogger().warning("Could not open structured log: " + e.getMessage());
+            }
+        }
+        if (pipeline == null && config.getBooleanValue("logging.async", true)) {
+            pipeline = new LogPipeline(config.getIntValue("logging.buffer-size", 8192), OwlLib.getInstance().getLogger());
+        }
+        if (summaryTask == null) {
+            summaryTask = Bukkit.getScheduler().runTaskTimerAsynchronously(OwlLib.getInstance(),
+                    () -> reportSuppressed(false), SUMMARY_PERIOD_TICKS, SUMMARY_PERIOD_TICKS);
+        }
+        refreshLevels();
+    }
+
+    /**
+     * Écrit les messages en attente puis arrête le thread d'écriture
+     */
+    public static synchronized void shutdown() {
+        if (summaryTask != null) {
+            summaryTask.cancel();
+            summaryTask = null;
+        }
+        reportSuppressed(true);
+
+        LogPipeline current = pipeline;
+        pipeline = null;
+        if (current != null) {
+            current.shutdown(SHUTDOWN_TIMEOUT_MILLIS);
+        }
+
+        MappedLogAppender file = appender;
+        appender = null;
+        consoleEnabled = true;
+        if (file != null) {
+            file.close();
+        }
+    }
+
+    /**
+     * Écrit un message mis en forme vers la console et le journal structuré
+     * Appelé par le thread d'écriture, ou par l'appelant lorsque l'écriture asynchrone n'est pas disponible.
+     * Les messages de debug (niveau inférieur à INFO) sont écrits en INFO dans la console.
+     */
+    static void emit(Logger logger, String source, String thread, Level level, String prefix, String message,
+                     Throwable thrown, long timestamp) {
+        MappedLogAppender file = appender;
+        if (file != null) {
+            file.append(timestamp, level, source, thread, message, thrown);
+            if (!consoleEnabled && level.intValue() < Level.WARNING.intValue()) {
+                return;
+            }
+        }
+
+        LogRecord record = new LogRecord(level.intValue() < Level.INFO.intValue() ? Level.INFO : level, prefix + message);
+        record.setInstant(Instant.ofEpochMilli(timestamp));
+        record.setLoggerName(logger.getName());
+        // Évite la recherche de l'appelant, qui désignerait le thread d'écriture
+        record.setSourceClassName(source);
+        record.setThrown(thrown);
+        logger.log(record);
+    }
+
+    /**
+     * Nombre total de messages écartés (limite de débit, regroupement, échantillonnage) par tous les loggers
+     */
+    public static long getSuppressedCount() {
+        long total = 0;
+        for (OwlLogger logger : loggers.values()) {
+            total += logger.getSuppressedCount();
+        }
+        return total;
+    }
+
+    /**
+     * Recalcule le niveau mis en cache par chaque logger
+     */
+    static void refreshLevels() {
+        int sampleRate = Math.max(1, readConfig("logging.debug-sample-rate", 1));
+        for (OwlLogger logger : loggers.values()) {
+            logger.threshold = thresholdFor(logger.componentName);
+            logger.debugSampleRate = sampleRate;
+        }
+    }
+
+    /**
+     * Écrit le résumé des messages écartés par les clés restées silencieuses pendant leur fenêtre
+     * @param force true pour résumer toutes les clés, quelle que soit leur fenêtre
+     */
+    private static void reportSuppressed(boolean force) {
+        long now = System.nanoTime();
+        for (OwlLogger logger : loggers.values()) {
+            for (ThrottledLogger throttled : logger.throttles.values()) {
+                String summary = throttled.takeSummary(now, force);
+                if (summary != null) {
+                    logger.write(Level.WARNING, logger.prefix, summary, 0, null, null, null, null);
+                }
+            }
+        }
+    }
+
+    private static int readConfig(String path, int defaultValue) {
+        OwlLib plugin = OwlLib.getInstance();
+        ConfigManager config = plugin != null ? plugin.getConfigManager() : null;
+        return config != null ? config.getIntValue(path, defaultValue) : defaultValue;
+    }
+
+    private static int thresholdFor(String componentName) {
+        OwlLib plugin = OwlLib.getInstance();
+        ConfigManager config = plugin != null ? plugin.getConfigManager() : null;
+        if (config == null) {
+            return Level.INFO.intValue();
+        }
+        if (config.get(DEBUG)) {
+            return Level.FINE.intValue();
+        }
+
+        String level = config.getStringValue("logging.levels." + componentName, null);
+        return parseLevel(level != null ? level : config.getStringValue("logging.level", "info")).intValue();
+    }
+
+    private static Level parseLevel(String value) {
+        String name = value.trim().toUpperCase(Locale.ROOT);
+        if (name.equals("DEBUG")) {
+            return Level.FINE;
+        }
+        try {
+            return Level.parse(name);
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+
     /**
      * Wrapper autour du logger Java standard pour ajouter des fonctionnalités
+     * Les variantes paramétrées remplacent chaque "{}" par un argument, et ne construisent
+     * le message (sur le thread d'écriture) que si le niveau est actif ; les variantes Supplier
+     * n'appellent le fournisseur que si le niveau est actif.
      */
     public static class OwlLogger {
+        private static final int FINE = Level.FINE.intValue();
+        private static final int INFO = Level.INFO.intValue();
+        private static final int WARNING = Level.WARNING.intValue();
+
         private final String componentName;
         private final Logger logger;
+        private final String prefix;
+        private final String debugPrefix;
+        private final Map<String, ThrottledLogger> throttles = new ConcurrentHashMap<>();
+        private final AtomicLong debugCounter = new AtomicLong();
+        private final LongAdder debugSampledOut = new LongAdder();
+        private volatile int threshold;
+        private volatile int debugSampleRate;
 
         private OwlLogger(String componentName) {
             this.componentName = componentName;
             this.logger = OwlLib.getInstance().getLogger();
+            this.prefix = "[" + componentName + "] ";
+            this.debugPrefix = "[" + componentName + "][DEBUG] ";
+            this.threshold = thresholdFor(componentName);
+            this.debugSampleRate = Math.max(1, readConfig("logging.debug-sample-rate", 1));
+        }
+
+        /**
+         * Renvoie le logger limité associé à une clé (ex : le nom d'un listener qui échoue)
+         * Les messages écrits à travers lui sont soumis à "logging.rate-limit" et "logging.dedupe-window-ms".
+         */
+        public ThrottledLogger throttled(String key) {
+            ThrottledLogger throttled = throttles.get(key);
+            return throttled != null ? throttled : throttles.computeIfAbsent(key, k -> new ThrottledLogger(this, k));
+        }
+
+        /**
+         * Nombre de messages écartés par ce logger : limites de débit, regroupements et échantillonnage du debug
+         */
+        public long getSuppressedCount() {
+            long total = debugSampledOut.sum();
+            for (ThrottledLogger throttled : throttles.values()) {
+                total += throttled.getSuppressedCount();
+            }
+            return total;
         }
 
         public void info(String message) {
-            logger.info("[" + componentName + "] " + message);
+            if (threshold <= INFO) {
+                write(Level.INFO, prefix, message, 0, null, null, null, null);
+            }
+        }
+
+        public void info(String template, Object arg) {
+            if (threshold <= INFO) {
+                write(Level.INFO, prefix, template, 1, arg, null, null, null);
+            }
+        }
+
+        public void info(String template, Object arg1, Object arg2) {
+            if (threshold <= INFO) {
+                write(Level.INFO, prefix, template, 2, arg1, arg2, null, null);
+            }
+        }
+
+        public void info(String template, Object... args) {
+            if (threshold <= INFO) {
+                write(Level.INFO, prefix, template, args.length, null, null, args, null);
+            }
+        }
+
+        public void info(Supplier<String> message) {
+            if (threshold <= INFO) {
+                write(Level.INFO, prefix, message.get(), 0, null, null, null, null);
+            }
         }
 
         public void warning(String message) {
-            logger.warning("[" + componentName + "] " + message);
+            if (threshold <= WARNING) {
+                write(Level.WARNING, prefix, message, 0, null, null, null, null);
+            }
+        }
+
+        public void warning(String template, Object arg) {
+            if (threshold <= WARNING) {
+                write(Level.WARNING, prefix, template, 1, arg, null, null, null);
+            }
+        }
+
+        public void warning(String template, Object arg1, Object arg2) {
+            if (threshold <= WARNING) {
+                write(Level.WARNING, prefix, template, 2, arg1, arg2, null, null);
+            }
+        }
+
+        public void warning(String template, Object... args) {
+            if (threshold <= WARNING) {
+                write(Level.WARNING, prefix, template, args.length, null, null, args, null);
+            }
+        }
+
+        public void warning(Supplier<String> message) {
+            if (threshold <= WARNING) {
+                write(Level.WARNING, prefix, message.get(), 0, null, null, null, null);
+            }
         }
 
         public void severe(String message) {
-            logger.severe("[" + componentName + "] " + message);
+            write(Level.SEVERE, prefix, message, 0, null, null, null, null);
+        }
+
+        public void severe(String template, Object arg) {
+            write(Level.SEVERE, prefix, template, 1, arg, null, null, null);
+        }
+
+        public void severe(String template, Object arg1, Object arg2) {
+            write(Level.SEVERE, prefix, template, 2, arg1, arg2, null, null);
+        }
+
+        public void severe(String template, Object... args) {
+            write(Level.SEVERE, prefix, template, args.length, null, null, args, null);
+        }
+
+        public void severe(Supplier<String> message) {
+            write(Level.SEVERE, prefix, message.get(), 0, null, null, null, null);
         }
 
         public void debug(String message) {
             // Ne log que si le mode debug est activé
-            if (OwlLib.getInstance().getConfigManager().getBooleanValue("debug", false)) {
-                logger.info("[" + componentName + "][DEBUG] " + message);
+            if (threshold <= FINE && sampleDebug()) {
+                write(Level.FINE, debugPrefix, message, 0, null, null, null, null);
+            }
+        }
+
+        public void debug(String template, Object arg) {
+            if (threshold <= FINE && sampleDebug()) {
+                write(Level.FINE, debugPrefix, template, 1, arg, null, null, null);
+            }
+        }
+
+        public void debug(String template, Object arg1, Object arg2) {
+            if (threshold <= FINE && sampleDebug()) {
+                write(Level.FINE, debugPrefix, template, 2, arg1, arg2, null, null);
+            }
+        }
+
+        public void debug(String template, Object... args) {
+            if (threshold <= FINE && sampleDebug()) {
+                write(Level.FINE, debugPrefix, template, args.length, null, null, args, null);
+            }
+        }
+
+        public void debug(Supplier<String> message) {
+            if (threshold <= FINE && sampleDebug()) {
+                write(Level.FINE, debugPrefix, message.get(), 0, null, null, null, null);
             }
         }
 
         public void error(String message, Throwable throwable) {
-            logger.severe("[" + componentName + "] " + message);
-            if (throwable != null && OwlLib.getInstance().getConfigManager().getBooleanValue("debug", false)) {
-                throwable.printStackTrace();
+            // La trace n'est affichée qu'en mode debug
+            write(Level.SEVERE, prefix, message, 0, null, null, null, isDebugEnabled() ? throwable : null);
+        }
+
+        /**
+         * Vérifie si le mode debug est activé ; simple lecture du niveau mis en cache
+         */
+        public boolean isDebugEnabled() {
+            return threshold <= FINE;
+        }
+
+        /**
+         * Vérifie si les messages d'un niveau sont écrits par ce logger
+         */
+        public boolean isEnabled(Level level) {
+            return level.intValue() >= threshold;
+        }
+
+        /**
+         * Ne garde qu'un message de debug sur "logging.debug-sample-rate"
+         */
+        private boolean sampleDebug() {
+            int rate = debugSampleRate;
+            if (rate <= 1 || debugCounter.getAndIncrement() % rate == 0) {
+                return true;
             }
+            debugSampledOut.increment();
+            return false;
+        }
+
+        private void write(Level level, String messagePrefix, String template, int argCount,
+                           Object arg1, Object arg2, Object[] args, Throwable thrown) {
+            LogPipeline current = pipeline;
+            if (current != null
+                    && current.offer(logger, componentName, level, messagePrefix, template, argCount, arg1, arg2, args, thrown)) {
+                return;
+            }
+
+            // Écriture non démarrée, arrêtée ou buffer resté plein : le message est écrit sur le thread appelant
+            StringBuilder message = new StringBuilder();
+            LogPipeline.appendFormatted(message, template, argCount, arg1, arg2, args);
+            emit(logger, componentName, Thread.currentThread().getName(), level, messagePrefix, message.toString(),
+                    thrown, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Logger limité à une clé, obtenu par OwlLogger.throttled
+     * Un seau de jetons borne le débit ("logging.rate-limit.per-second", rafale "logging.rate-limit.burst") ;
+     * un message identique au précédent dans la fenêtre "logging.dedupe-window-ms" n'est pas réécrit.
+     * Le message suivant, ou le résumé périodique, indique combien de messages ont été écartés.
+     * Contrairement à OwlLogger.error, error écrit toujours la trace : seule la première d'une rafale passe.
+     */
+    public static final class ThrottledLogger {
+
+        private final OwlLogger owner;
+        private final String key;
+        private final double tokensPerNano;
+        private final double burst;
+        private final long dedupeWindowNanos;
+        private final LongAdder suppressed = new LongAdder();
+
+        // Protégés par this
+        private double tokens;
+        private long lastRefill;
+        private String lastFingerprint;
+        private long lastWrittenAt;
+        private long repeated;
+        private long rateLimited;
+
+        private ThrottledLogger(OwlLogger owner, String key) {
+            this.owner = owner;
+            this.key = key;
+            this.burst = Math.max(1, readConfig("logging.rate-limit.burst", 20));
+            this.tokensPerNano = Math.max(0, readConfig("logging.rate-limit.per-second", 5)) / (double) TimeUnit.SECONDS.toNanos(1);
+            this.dedupeWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, readConfig("logging.dedupe-window-ms", 5000)));
+            this.tokens = burst;
+            this.lastRefill = System.nanoTime();
+        }
+
+        public void info(String message) {
+            log(Level.INFO, message, null);
+        }
+
+        public void warning(String message) {
+            log(Level.WARNING, message, null);
+        }
+
+        public void severe(String message) {
+            log(Level.SEVERE, message, null);
+        }
+
+        public void error(String message, Throwable throwable) {
+            log(Level.SEVERE, message, throwable);
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Nombre de messages écartés pour cette clé depuis le démarrage
+         */
+        public long getSuppressedCount() {
+            return suppressed.sum();
+        }
+
+        private void log(Level level, String message, Throwable thrown) {
+            if (!owner.isEnabled(level)) {
+                return;
+            }
+
+            String fingerprint = thrown == null ? message : message + '\n' + thrown.getClass().getName();
+            String notice = admit(fingerprint, System.nanoTime());
+            if (notice != null) {
+                owner.write(level, owner.prefix, notice.isEmpty() ? message : message + notice, 0, null, null, null, thrown);
+            }
+        }
+
+        /**
+         * Décide si un message est écrit
+         * @return null si le message est écarté, sinon le complément à ajouter au message (vide ou résumé)
+         */
+        private synchronized String admit(String fingerprint, long now) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+
+            if (fingerprint.equals(lastFingerprint) && now - lastWrittenAt < dedupeWindowNanos) {
+                repeated++;
+                suppressed.increment();
+                return null;
+            }
+            if (tokens < 1) {
+                rateLimited++;
+                suppressed.increment();
+                return null;
+            }
+
+            tokens -= 1;
+            lastFingerprint = fingerprint;
+            lastWrittenAt = now;
+            String notice = repeated + rateLimited == 0 ? "" : " " + describeSuppressed();
+            repeated = 0;
+            rateLimited = 0;
+            return notice;
+        }
+
+        /**
+         * Résumé des messages écartés depuis le dernier message écrit, une fois la fenêtre écoulée
+         */
+        private synchronized String takeSummary(long now, boolean force) {
+            if (repeated + rateLimited == 0 || (!force && now - lastWrittenAt < dedupeWindowNanos)) {
+                return null;
+            }
+            String summary = "'" + key + "': " + describeSuppressed();
+            repeated = 0;
+            rateLimited = 0;
+            // Le prochain message, même identique, sera écrit
+            lastFingerprint = null;
+            return summary;
+        }
+
+        private String describeSuppressed() {
+            return "(suppressed " + repeated + " identical and " + rateLimited + " rate-limited messages)";
         }
     }
-}
\ No newline at end of file
+}
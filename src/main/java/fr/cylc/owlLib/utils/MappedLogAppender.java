@@ -0,0 +1,273 @@
+package fr.cylc.owlLib.utils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Journal structuré des OwlLogger, au format JSON lines
+ * Chaque message devient une ligne {"ts":..,"level":..,"logger":..,"thread":..,"msg":..[,"error":..]}
+ * écrite directement dans un segment de fichier mappé en mémoire ("owllib-000042.jsonl") : pas d'appel
+ * système par message. Le contenu est forcé sur disque par un thread dédié ("logging.structured.flush-interval-ms"),
+ * hors du verrou : un appelant qui écrit lui-même son message n'attend jamais le disque.
+ * Un segment plein est tronqué à sa taille utile puis remplacé ; seuls les "max-segments" plus récents
+ * sont conservés. Après un arrêt brutal, la fin du dernier segment peut contenir des octets nuls à ignorer.
+ */
+final class MappedLogAppender {
+
+    private static final String PREFIX = "owllib-";
+    private static final String SUFFIX = ".jsonl";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final ScheduledExecutorService flusher;
+    private final StringBuilder line = new StringBuilder(512);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final LongAdder dropped = new LongAdder();
+
+    // Protégés par this
+    private int segmentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private boolean closed;
+
+    /**
+     * @param segmentSize Taille d'un segment en octets, bornée à la taille maximale d'un mapping (2 Go)
+     */
+    MappedLogAppender(Path directory, long segmentSize, int maxSegments, long flushIntervalMillis) throws IOException {
+        this.directory = directory;
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE, Math.max(64 * 1024, segmentSize));
+        this.maxSegments = Math.max(1, maxSegments);
+        Files.createDirectories(directory);
+
+        List<Path> segments = listSegments();
+        this.segmentIndex = segments.isEmpty() ? 0 : indexOf(segments.get(segments.size() - 1));
+        openNextSegment();
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OwlLib-LogFlusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, flushIntervalMillis);
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ajoute un message au segment courant
+     */
+    synchronized void append(long timestamp, Level level, String logger, String thread, String message, Throwable thrown) {
+        if (closed) {
+            return;
+        }
+
+        line.setLength(0);
+        line.append("{\"ts\":").append(timestamp)
+                .append(",\"level\":\"").append(levelName(level)).append('"')
+                .append(",\"logger\":");
+        appendJson(line, logger);
+        line.append(",\"thread\":");
+        appendJson(line, thread);
+        line.append(",\"msg\":");
+        appendJson(line, message);
+        if (thrown != null) {
+            StringWriter trace = new StringWriter();
+            thrown.printStackTrace(new PrintWriter(trace));
+            line.append(",\"error\":");
+            appendJson(line, trace.toString());
+        }
+        line.append("}\n");
+
+        try {
+            if (!encodeLine()) {
+                rotate();
+                if (!encodeLine()) {
+                    // Plus grand qu'un segment entier
+                    dropped.increment();
+                }
+            }
+        } catch (IOException e) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Force le segment courant sur disque ; appelé par le thread dédié, sans garder le verrou pendant l'écriture
+     */
+    private void flush() {
+        MappedByteBuffer current;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            current = buffer;
+        }
+        try {
+            // Un segment remplacé entre-temps a déjà été forcé par sa fermeture : le forcer à nouveau est sans effet
+            current.force();
+        } catch (RuntimeException ignored) {
+            // Erreur d'entrée-sortie : nouvel essai à l'intervalle suivant, une exception arrêterait la tâche
+        }
+    }
+
+    /**
+     * Nombre de messages qui n'ont pas pu être écrits
+     */
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Force le segment courant sur disque, le tronque à sa taille utile et le ferme
+     */
+    void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeSegments();
+    }
+
+    private synchronized void closeSegments() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            closeSegment();
+        } catch (IOException ignored) {
+            // Le segment reste lisible, complété d'octets nuls
+        }
+    }
+
+    private boolean encodeLine() {
+        int start = buffer.position();
+        encoder.reset();
+        CoderResult result = encoder.encode(CharBuffer.wrap(line), buffer, true);
+        if (result.isOverflow()) {
+            buffer.position(start);
+            return false;
+        }
+        return true;
+    }
+
+    private void rotate() throws IOException {
+        closeSegment();
+        openNextSegment();
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentIndex++;
+        Path file = directory.resolve(String.format("%s%06d%s", PREFIX, segmentIndex, SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        deleteOldSegments();
+    }
+
+    private void closeSegment() throws IOException {
+        int written = buffer.position();
+        buffer.force();
+        try {
+            // Peut échouer tant que le mapping existe (Windows) : le segment garde alors sa taille pleine
+            channel.truncate(written);
+        } catch (IOException ignored) {
+            // Octets nuls en fin de segment
+        }
+        channel.close();
+    }
+
+    private void deleteOldSegments() throws IOException {
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                if (indexOf(file) > 0) {
+                    segments.add(file);
+                }
+            }
+        }
+        // Les indices ont une largeur fixe : l'ordre des noms est l'ordre d'écriture
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static int indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    private static String levelName(Level level) {
+        return level.intValue() < Level.INFO.intValue() ? "DEBUG" : level.getName();
+    }
+
+    private static void appendJson(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,328 @@
+package fr.cylc.owlLib.utils;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Ring buffer préalloué multi-producteurs, inspiré du Disruptor
+ * Les slots sont créés une seule fois puis réutilisés : publier ne fait aucune allocation.
+ * Chaque consommateur traite par lots les séquences qui lui reviennent (séquence modulo nombre de consommateurs).
+ * Une fois arrêté (halt), le buffer refuse les nouvelles séquences : next lève IllegalStateException
+ * et tryNext renvoie -1.
+ */
+public final class OwlRingBuffer<E> {
+
+    private static final long HALT_JOIN_MILLIS = 5000;
+
+    private final Object[] slots;
+    private final int mask;
+    private final int indexShift;
+    private final AtomicIntegerArray availability;
+    private final AtomicLong claimCursor = new AtomicLong(-1);
+    private final AtomicLong[] consumerSequences;
+    private final WaitStrategy waitStrategy;
+    private volatile long cachedMinimumSequence = -1;
+    private volatile boolean running;
+    private volatile boolean halted;
+    private Thread[] consumerThreads;
+
+    /**
+     * @param capacity Taille demandée, arrondie à la puissance de deux supérieure
+     * @param consumers Nombre de consommateurs qui se partagent les séquences
+     * @param slotFactory Fabrique utilisée pour préallouer chaque slot
+     * @param waitStrategy Stratégie d'attente des consommateurs et des producteurs
+     */
+    public OwlRingBuffer(int capacity, int consumers, Supplier<E> slotFactory, WaitStrategy waitStrategy) {
+        if (capacity < 1 || consumers < 1) {
+            throw new IllegalArgumentException("Ring buffer capacity and consumer count must be positive");
+        }
+
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.slots = new Object[size];
+        this.mask = size - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(size);
+        this.availability = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = slotFactory.get();
+            availability.set(i, -1);
+        }
+
+        this.consumerSequences = new AtomicLong[consumers];
+        for (int i = 0; i < consumers; i++) {
+            consumerSequences[i] = new AtomicLong(-1);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Renvoie la capacité effective du buffer
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Réserve la prochaine séquence, en attendant qu'un slot se libère si le buffer est plein
+     * @throws IllegalStateException si le buffer est arrêté, y compris pendant l'attente
+     */
+    public long next() {
+        if (halted) {
+            throw new IllegalStateException("Ring buffer halted");
+        }
+        long sequence = claimCursor.incrementAndGet();
+        long wrapPoint = sequence - slots.length;
+        int idleCount = 0;
+        while (wrapPoint > cachedMinimumSequence) {
+            long minimum = minimumConsumerSequence();
+            cachedMinimumSequence = minimum;
+            if (wrapPoint <= minimum) {
+                break;
+            }
+            // Des consommateurs arrêtés ne libéreront plus de slot
+            if (halted) {
+                throw new IllegalStateException("Ring buffer halted");
+            }
+            idleCount = waitStrategy.idle(idleCount);
+        }
+        return sequence;
+    }
+
+    /**
+     * Réserve la prochaine séquence sans attendre
+     * @return La séquence réservée, ou -1 si le buffer est plein ou arrêté
+     */
+    public long tryNext() {
+        while (true) {
+            if (halted) {
+                return -1;
+            }
+            long current = claimCursor.get();
+            long sequence = current + 1;
+            long wrapPoint = sequence - slots.length;
+            if (wrapPoint > cachedMinimumSequence) {
+                long minimum = minimumConsumerSequence();
+                cachedMinimumSequence = minimum;
+                if (wrapPoint > minimum) {
+                    return -1;
+                }
+            }
+            if (claimCursor.compareAndSet(current, sequence)) {
+                return sequence;
+            }
+        }
+    }
+
+    /**
+     * Renvoie le slot associé à une séquence réservée
+     */
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) slots[(int) sequence & mask];
+    }
+
+    /**
+     * Rend une séquence réservée visible pour les consommateurs
+     */
+    public void publish(long sequence) {
+        availability.lazySet((int) sequence & mask, (int) (sequence >>> indexShift));
+    }
+
+    /**
+     * Nombre de séquences publiées et pas encore traitées par tous les consommateurs
+     */
+    public long getPendingCount() {
+        return Math.max(0, claimCursor.get() - minimumConsumerSequence());
+    }
+
+    /**
+     * Démarre un thread par handler ; le handler d'indice i traite les séquences s telles que s % n == i
+     */
+    public synchronized void start(ThreadFactory threadFactory, BatchHandler<E>[] handlers) {
+        if (handlers.length != consumerSequences.length) {
+            throw new IllegalArgumentException("Expected " + consumerSequences.length + " handlers, got " + handlers.length);
+        }
+        if (consumerThreads != null || halted) {
+            throw new IllegalStateException("Ring buffer already started");
+        }
+
+        running = true;
+        consumerThreads = new Thread[handlers.length];
+        for (int i = 0; i < handlers.length; i++) {
+            int ordinal = i;
+            BatchHandler<E> handler = handlers[i];
+            consumerThreads[i] = threadFactory.newThread(() -> consume(ordinal, handler));
+            consumerThreads[i].start();
+        }
+    }
+
+    /**
+     * Arrête les consommateurs après qu'ils ont traité les séquences déjà publiées, et attend leur fin
+     * L'attente est bornée, et n'a pas lieu si halt est appelé par un consommateur.
+     */
+    public synchronized void halt() {
+        halted = true;
+        running = false;
+        if (consumerThreads == null) {
+            return;
+        }
+
+        Thread[] threads = consumerThreads;
+        consumerThreads = null;
+        for (Thread thread : threads) {
+            LockSupport.unpark(thread);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(HALT_JOIN_MILLIS);
+        for (Thread thread : threads) {
+            long remaining = deadline - System.nanoTime();
+            if (thread == Thread.currentThread() || remaining <= 0) {
+                continue;
+            }
+            try {
+                thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void consume(int ordinal, BatchHandler<E> handler) {
+        AtomicLong sequence = consumerSequences[ordinal];
+        int consumerCount = consumerSequences.length;
+        long nextSequence = sequence.get() + 1;
+        int idleCount = 0;
+
+        while (true) {
+            long available = highestPublishedSequence(nextSequence, claimCursor.get());
+            if (available < nextSequence) {
+                if (!running) {
+                    return;
+                }
+                idleCount = waitStrategy.idle(idleCount);
+                continue;
+            }
+
+            idleCount = 0;
+            // Dernière séquence du lot qui revient à ce consommateur : c'est elle qui clôt son lot
+            long lastOwned = available - Math.floorMod(available - ordinal, consumerCount);
+            for (long s = nextSequence; s <= available; s++) {
+                if (s % consumerCount == ordinal) {
+                    try {
+                        handler.onEvent(get(s), s, s == lastOwned);
+                    } catch (Throwable t) {
+                        handler.onError(t);
+                    }
+                }
+            }
+            sequence.lazySet(available);
+            nextSequence = available + 1;
+        }
+    }
+
+    private long highestPublishedSequence(long lowerBound, long upperBound) {
+        for (long s = lowerBound; s <= upperBound; s++) {
+            if (availability.get((int) s & mask) != (int) (s >>> indexShift)) {
+                return s - 1;
+            }
+        }
+        return upperBound;
+    }
+
+    private long minimumConsumerSequence() {
+        long minimum = Long.MAX_VALUE;
+        for (AtomicLong sequence : consumerSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+
+    /**
+     * Traitement des slots côté consommateur
+     */
+    public interface BatchHandler<E> {
+
+        /**
+         * Traite un slot publié
+         * @param endOfBatch true si c'est le dernier slot du lot courant
+         */
+        void onEvent(E slot, long sequence, boolean endOfBatch);
+
+        /**
+         * Appelé lorsqu'un traitement lève une exception, le consommateur continue ensuite
+         */
+        void onError(Throwable throwable);
+    }
+
+    /**
+     * Stratégies d'attente lorsqu'aucune séquence n'est disponible
+     */
+    public enum WaitStrategy {
+        /**
+         * Attente active : latence minimale, un cœur occupé par consommateur
+         */
+        BUSY_SPIN {
+            @Override
+            public int idle(int idleCount) {
+                Thread.onSpinWait();
+                return idleCount + 1;
+            }
+        },
+        /**
+         * Attente active courte puis cession du processeur aux autres threads
+         */
+        YIELDING {
+            @Override
+            public int idle(int idleCount) {
+                if (idleCount < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+                return idleCount + 1;
+            }
+        },
+        /**
+         * Attente active courte puis mise en sommeil : coût CPU quasi nul au repos
+         */
+        PARKING {
+            @Override
+            public int idle(int idleCount) {
+                if (idleCount < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+                return idleCount + 1;
+            }
+        };
+
+        private static final int SPIN_TRIES = 100;
+        private static final long PARK_NANOS = 100_000L;
+
+        /**
+         * Attend un court instant
+         * @param idleCount Nombre d'attentes consécutives déjà effectuées
+         * @return Le nouveau nombre d'attentes consécutives
+         */
+        public abstract int idle(int idleCount);
+
+        /**
+         * Convertit une valeur de configuration (ex : "busy-spin") en stratégie
+         */
+        public static WaitStrategy fromConfig(String value, WaitStrategy defaultValue) {
+            if (value == null) {
+                return defaultValue;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                return defaultValue;
+            }
+        }
+    }
+}